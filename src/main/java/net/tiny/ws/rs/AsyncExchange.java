@@ -0,0 +1,163 @@
+package net.tiny.ws.rs;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+/**
+ * 可以延迟结束的HttpExchange
+ * 异步处理中(suspend后)调用的 {@link #close()} 延迟到 {@link #complete()} 时执行，
+ * 处理线程返回后交换也不会被关闭。其他方法委托给原来的交换。
+ */
+final class AsyncExchange extends HttpExchange {
+
+    private final HttpExchange exchange;
+    private boolean suspended;
+    private boolean completed;
+    private boolean closeRequested;
+    private boolean handled;
+
+    AsyncExchange(final HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    HttpExchange getExchange() {
+        return exchange;
+    }
+
+    /**
+     * 开始异步处理
+     */
+    synchronized void suspend() {
+        suspended = true;
+    }
+
+    synchronized boolean isSuspended() {
+        return suspended && !completed;
+    }
+
+    /**
+     * 异步处理结束, 处理线程已返回时关闭交换
+     */
+    void complete() {
+        final boolean close;
+        synchronized (this) {
+            completed = true;
+            close = closeRequested || handled;
+        }
+        if (close) {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 处理线程返回, 异步处理已结束时关闭交换
+     */
+    void handled() {
+        final boolean close;
+        synchronized (this) {
+            handled = true;
+            close = suspended && completed;
+        }
+        if (close) {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (suspended && !completed) {
+                closeRequested = true;
+                return;
+            }
+        }
+        exchange.close();
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return exchange.getRequestHeaders();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return exchange.getResponseHeaders();
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return exchange.getRequestURI();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return exchange.getHttpContext();
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return exchange.getRequestBody();
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return exchange.getResponseBody();
+    }
+
+    @Override
+    public void sendResponseHeaders(final int rCode, final long responseLength) throws java.io.IOException {
+        exchange.sendResponseHeaders(rCode, responseLength);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return exchange.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return exchange.getResponseCode();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return exchange.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return exchange.getProtocol();
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        return exchange.getAttribute(name);
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        exchange.setAttribute(name, value);
+    }
+
+    @Override
+    public void setStreams(final InputStream i, final OutputStream o) {
+        exchange.setStreams(i, o);
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return exchange.getPrincipal();
+    }
+}
@@ -0,0 +1,336 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+/**
+ * 按类生成的JSON写出器
+ * 按值的实际类在第一次写出时生成，RestService初始化时按方法的返回类型预先生成。
+ * 预先把属性名编码成UTF-8的 "name": 字节列，并把字段绑定成 MethodHandle。
+ * 写出时只复制字节和直接写出原始类型的值，不再查找属性。
+ * 属性为类及父类的非static, 非transient字段，值为null的属性不写出。
+ * 路由表重新生成时清除，不保留重新部署前的类。
+ */
+final class BeanWriter {
+
+    private static Logger LOGGER = Logger.getLogger(BeanWriter.class.getName());
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final ConcurrentMap<Class<?>, BeanWriter> WRITERS = new ConcurrentHashMap<>();
+    /** 不能生成写出器的类 */
+    private static final BeanWriter NONE = new BeanWriter(Object.class, new Property[0]);
+
+    private final Class<?> type;
+    private final Property[] properties;
+
+    private BeanWriter(final Class<?> type, final Property[] properties) {
+        this.type = type;
+        this.properties = properties;
+    }
+
+    /**
+     * 取得登录的写出器
+     *
+     * @param type
+     * @return 没有登录时为null
+     */
+    static BeanWriter get(final Class<?> type) {
+        final BeanWriter writer = WRITERS.get(type);
+        return NONE == writer ? null : writer;
+    }
+
+    /**
+     * 取得实际类的写出器, 没有时生成
+     *
+     * @param type 值的类
+     * @return 不是Bean或没有属性时为null
+     */
+    static BeanWriter of(final Class<?> type) {
+        BeanWriter writer = WRITERS.get(type);
+        if (null == writer) {
+            writer = WRITERS.computeIfAbsent(type, c -> {
+                final BeanWriter compiled = isBean(c) ? compile(c) : null;
+                return null != compiled ? compiled : NONE;
+            });
+        }
+        return NONE == writer ? null : writer;
+    }
+
+    /**
+     * 按类型(含泛型参数, 数组的要素, 字段的类型)预先生成写出器
+     *
+     * @param type 方法的返回类型
+     */
+    static void register(final Type type) {
+        if (type instanceof Class) {
+            final Class<?> cls = (Class<?>) type;
+            if (cls.isArray()) {
+                register(cls.getComponentType());
+            } else if (isBean(cls) && !WRITERS.containsKey(cls)) {
+                final BeanWriter writer = compile(cls);
+                if (null != writer && null == WRITERS.putIfAbsent(cls, writer)) {
+                    for (Property property : writer.properties) {
+                        register(property.genericType);
+                    }
+                }
+            }
+        } else if (type instanceof ParameterizedType) {
+            register(((ParameterizedType) type).getRawType());
+            for (Type arg : ((ParameterizedType) type).getActualTypeArguments()) {
+                register(arg);
+            }
+        } else if (type instanceof GenericArrayType) {
+            register(((GenericArrayType) type).getGenericComponentType());
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds()) {
+                register(bound);
+            }
+        }
+    }
+
+    static void clear() {
+        WRITERS.clear();
+    }
+
+    /**
+     * JDK的类, 集合, 枚举, 抽象类等不生成写出器
+     */
+    static boolean isBean(final Class<?> cls) {
+        if (cls.isPrimitive() || cls.isArray() || cls.isEnum() || cls.isInterface() || cls.isAnnotation()
+                || Modifier.isAbstract(cls.getModifiers())) {
+            return false;
+        }
+        if (Map.class.isAssignableFrom(cls) || Iterable.class.isAssignableFrom(cls)
+                || CharSequence.class.isAssignableFrom(cls) || Number.class.isAssignableFrom(cls)) {
+            return false;
+        }
+        final String name = cls.getName();
+        return !(name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.") || name.startsWith("com.sun."));
+    }
+
+    private static BeanWriter compile(final Class<?> cls) {
+        final List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = cls; null != c && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        final List<Property> properties = new ArrayList<>();
+        try {
+            for (Class<?> c : hierarchy) {
+                for (Field field : c.getDeclaredFields()) {
+                    final int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    properties.add(new Property(field));
+                }
+            }
+        } catch (IllegalAccessException | RuntimeException ex) {
+            LOGGER.fine(String.format("[REST] - Not compile JSON writer of '%s'. %s", cls.getName(), ex.getMessage()));
+            return null;
+        }
+        if (properties.isEmpty()) {
+            return null;
+        }
+        return new BeanWriter(cls, properties.toArray(new Property[properties.size()]));
+    }
+
+    /**
+     * 写出对象
+     *
+     * @param bean
+     * @param out
+     * @throws IOException
+     */
+    void write(final Object bean, final OutputStream out) throws IOException {
+        out.write('{');
+        boolean first = true;
+        try {
+            for (Property property : properties) {
+                first = property.write(bean, out, first);
+            }
+        } catch (IOException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+        out.write('}');
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + type.getName() + " [" + properties.length + "]";
+    }
+
+    /** 属性的种类 */
+    private static final int BOOLEAN = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int FLOAT = 4;
+    private static final int CHAR = 5;
+    private static final int STRING = 6;
+    private static final int OBJECT = 7;
+
+    /** 属性 */
+    static final class Property {
+        final String name;
+        final Type genericType;
+        /** "name": */
+        private final byte[] key;
+        private final int kind;
+        private final MethodHandle getter;
+
+        Property(final Field field) throws IllegalAccessException {
+            this.name = field.getName();
+            this.genericType = field.getGenericType();
+            this.key = ("\"" + escape(name) + "\":").getBytes(StandardCharsets.UTF_8);
+            field.setAccessible(true);
+            final Class<?> type = field.getType();
+            this.kind = kindOf(type);
+            final Class<?> handleType;
+            switch (kind) {
+            case BOOLEAN:
+                handleType = boolean.class;
+                break;
+            case INT:
+                handleType = int.class;
+                break;
+            case LONG:
+                handleType = long.class;
+                break;
+            case DOUBLE:
+                handleType = double.class;
+                break;
+            case FLOAT:
+                handleType = float.class;
+                break;
+            case CHAR:
+                handleType = char.class;
+                break;
+            case STRING:
+                handleType = String.class;
+                break;
+            default:
+                handleType = Object.class;
+            }
+            // (Object)原始类型, 不装箱
+            this.getter = LOOKUP.unreflectGetter(field).asType(MethodType.methodType(handleType, Object.class));
+        }
+
+        private static int kindOf(final Class<?> type) {
+            if (type == boolean.class) {
+                return BOOLEAN;
+            }
+            if (type == int.class || type == short.class || type == byte.class) {
+                return INT;
+            }
+            if (type == long.class) {
+                return LONG;
+            }
+            if (type == double.class) {
+                return DOUBLE;
+            }
+            if (type == float.class) {
+                return FLOAT;
+            }
+            if (type == char.class) {
+                return CHAR;
+            }
+            if (type == String.class) {
+                return STRING;
+            }
+            return OBJECT;
+        }
+
+        /**
+         * 写出属性
+         *
+         * @return 是否还没有写出任何属性
+         */
+        boolean write(final Object bean, final OutputStream out, final boolean first) throws Throwable {
+            switch (kind) {
+            case BOOLEAN: {
+                key(out, first);
+                JsonWriter.writeBoolean((boolean) getter.invokeExact(bean), out);
+                return false;
+            }
+            case INT: {
+                key(out, first);
+                JsonWriter.writeLong((int) getter.invokeExact(bean), out);
+                return false;
+            }
+            case LONG: {
+                key(out, first);
+                JsonWriter.writeLong((long) getter.invokeExact(bean), out);
+                return false;
+            }
+            case DOUBLE: {
+                key(out, first);
+                JsonWriter.writeDouble((double) getter.invokeExact(bean), out);
+                return false;
+            }
+            case FLOAT: {
+                key(out, first);
+                JsonWriter.writeFloat((float) getter.invokeExact(bean), out);
+                return false;
+            }
+            case CHAR: {
+                key(out, first);
+                JsonWriter.writeString(String.valueOf((char) getter.invokeExact(bean)), out);
+                return false;
+            }
+            case STRING: {
+                final String value = (String) getter.invokeExact(bean);
+                if (null == value) {
+                    return first;
+                }
+                key(out, first);
+                JsonWriter.writeString(value, out);
+                return false;
+            }
+            default: {
+                final Object value = (Object) getter.invokeExact(bean);
+                if (null == value) {
+                    return first;
+                }
+                key(out, first);
+                JsonWriter.write(value, out);
+                return false;
+            }
+            }
+        }
+
+        private void key(final OutputStream out, final boolean first) throws IOException {
+            if (!first) {
+                out.write(',');
+            }
+            out.write(key);
+        }
+
+        private static String escape(final String name) {
+            return name.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
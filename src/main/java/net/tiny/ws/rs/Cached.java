@@ -0,0 +1,30 @@
+package net.tiny.ws.rs;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * GET资源方法的响应缓存
+ * <pre>
+ * &#64;GET
+ * &#64;Path("add/{a}/{b}")
+ * &#64;Cached(ttl = 60000, maxEntries = 1000)
+ * public int add(@PathParam("a") int a, @PathParam("b") int b) { ... }
+ * </pre>
+ * 按变换后的参数值缓存JSON编码后的响应体(以及gzip压缩后的内容)，命中时不调用资源方法。
+ * 仅用于结果只由路径和Query参数决定的方法。
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+
+    /** 有效期(毫秒), 0为不过期 */
+    long ttl() default 60000L;
+
+    /** 缓存的响应数上限 */
+    int maxEntries() default 1000;
+}
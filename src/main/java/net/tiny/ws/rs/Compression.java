@@ -0,0 +1,233 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 响应的压缩(gzip, deflate)
+ * 按"Accept-Encoding"选择编码，Deflater按编码和压缩级别放入池里重复使用。
+ */
+final class Compression {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+    static final String ACCEPT_ENCODING = "Accept-Encoding";
+    static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private static final int POOL_SIZE = 32;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final ConcurrentMap<Integer, BlockingQueue<Deflater>> POOLS = new ConcurrentHashMap<>();
+
+    private Compression() {
+    }
+
+    /**
+     * 按"Accept-Encoding"选择编码，gzip优先
+     *
+     * @param acceptEncoding "gzip, deflate;q=0.5"等
+     * @return "gzip", "deflate", 都不接受时为null
+     */
+    static String negotiate(final String acceptEncoding) {
+        if (null == acceptEncoding || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        float gzip = -1f;
+        float deflate = -1f;
+        float any = -1f;
+        for (String item : acceptEncoding.split(",")) {
+            final String[] params = item.split(";");
+            final String coding = params[0].trim();
+            float q = 1f;
+            for (int i = 1; i < params.length; i++) {
+                final String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Float.parseFloat(param.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        q = 0f;
+                    }
+                }
+            }
+            if (GZIP.equalsIgnoreCase(coding) || "x-gzip".equalsIgnoreCase(coding)) {
+                gzip = q;
+            } else if (DEFLATE.equalsIgnoreCase(coding)) {
+                deflate = q;
+            } else if ("*".equals(coding)) {
+                any = q;
+            }
+        }
+        if (gzip < 0f) {
+            gzip = any;
+        }
+        if (deflate < 0f) {
+            deflate = any;
+        }
+        if (gzip > 0f && gzip >= deflate) {
+            return GZIP;
+        }
+        if (deflate > 0f) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * 从池里借出Deflater
+     *
+     * @param encoding "gzip"时为不带zlib头的Deflater
+     * @param level 压缩级别
+     * @return
+     */
+    static Deflater borrow(final String encoding, final int level) {
+        final boolean nowrap = GZIP.equals(encoding);
+        final Deflater deflater = pool(nowrap, level).poll();
+        return null != deflater ? deflater : new Deflater(level, nowrap);
+    }
+
+    /**
+     * 归还Deflater, 池已满时释放
+     */
+    static void release(final String encoding, final int level, final Deflater deflater) {
+        deflater.reset();
+        if (!pool(GZIP.equals(encoding), level).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static BlockingQueue<Deflater> pool(final boolean nowrap, final int level) {
+        final Integer key = (level + 1) * 2 + (nowrap ? 1 : 0);
+        BlockingQueue<Deflater> pool = POOLS.get(key);
+        if (null == pool) {
+            pool = new ArrayBlockingQueue<>(POOL_SIZE);
+            final BlockingQueue<Deflater> other = POOLS.putIfAbsent(key, pool);
+            if (null != other) {
+                pool = other;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 压缩整个字节列
+     *
+     * @return 压缩后的字节列
+     */
+    static byte[] compress(final byte[] data, final int off, final int len, final String encoding, final int level) {
+        final boolean gzip = GZIP.equals(encoding);
+        final Deflater deflater = borrow(encoding, level);
+        try {
+            deflater.setInput(data, off, len);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, len / 2 + 32)];
+            int count = 0;
+            if (gzip) {
+                System.arraycopy(GZIP_HEADER, 0, out, 0, GZIP_HEADER.length);
+                count = GZIP_HEADER.length;
+            }
+            while (!deflater.finished()) {
+                if (count == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                count += deflater.deflate(out, count, out.length - count);
+            }
+            if (gzip) {
+                if (out.length - count < 8) {
+                    out = Arrays.copyOf(out, count + 8);
+                }
+                final CRC32 crc = new CRC32();
+                crc.update(data, off, len);
+                writeInt(out, count, (int) crc.getValue());
+                writeInt(out, count + 4, len);
+                count += 8;
+            }
+            return count == out.length ? out : Arrays.copyOf(out, count);
+        } finally {
+            release(encoding, level, deflater);
+        }
+    }
+
+    private static void writeInt(final byte[] b, final int off, final int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >> 8);
+        b[off + 2] = (byte) (value >> 16);
+        b[off + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * 使用池里的Deflater的压缩流, 关闭时写出gzip的尾部并归还Deflater
+     */
+    static final class CompressionOutputStream extends DeflaterOutputStream {
+        private final String encoding;
+        private final int level;
+        private final CRC32 crc;
+        private long size;
+        private boolean released;
+
+        CompressionOutputStream(final OutputStream out, final String encoding, final int level) throws IOException {
+            // flush()时按SYNC_FLUSH送出已压缩的内容
+            super(out, borrow(encoding, level), ResponseOutputStream.DEFAULT_BUFFER_SIZE, true);
+            this.encoding = encoding;
+            this.level = level;
+            this.crc = GZIP.equals(encoding) ? new CRC32() : null;
+            if (null != crc) {
+                out.write(GZIP_HEADER);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            super.write(b, off, len);
+            if (null != crc) {
+                crc.update(b, off, len);
+            }
+            size += len;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (def.finished()) {
+                return;
+            }
+            super.finish();
+            if (null != crc) {
+                final byte[] trailer = new byte[8];
+                writeInt(trailer, 0, (int) crc.getValue());
+                writeInt(trailer, 4, (int) size);
+                out.write(trailer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released) {
+                return;
+            }
+            try {
+                super.close();
+            } finally {
+                if (!released) {
+                    released = true;
+                    release(encoding, level, def);
+                }
+            }
+        }
+
+        /**
+         * 中断的响应用, 不写出剩余的内容和尾部, 只归还Deflater
+         */
+        void abort() {
+            if (!released) {
+                released = true;
+                release(encoding, level, def);
+            }
+        }
+    }
+}
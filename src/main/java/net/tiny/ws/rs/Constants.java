@@ -1,15 +1,21 @@
-package net.tiny.ws.rs;
-
-public interface Constants {
-    public enum Mode {
-        instance,
-        singleton
-    }
-    String CONTEXT_PARAM_APPLICATION = "javax.ws.rs.Application";
-
-    String CONTEXT_SCAN_PACKAGES = "javax.ws.rs.scan.packages";
-
-    String CONTEXT_SCAN_PACKAGES_EXCLUDE  = "javax.ws.rs.scan.packages.exclude";
-
-    String INIT_PARAM_APPLICATION  = CONTEXT_PARAM_APPLICATION;
-}
+package net.tiny.ws.rs;
+
+public interface Constants {
+    public enum Mode {
+        /** 每次请求生成新实体 */
+        instance,
+        /** 所有请求共用一个实体 */
+        singleton,
+        /** 每个线程一个实体 */
+        thread,
+        /** 从有上限的实体池借出，请求结束后归还 */
+        pool
+    }
+    String CONTEXT_PARAM_APPLICATION = "javax.ws.rs.Application";
+
+    String CONTEXT_SCAN_PACKAGES = "javax.ws.rs.scan.packages";
+
+    String CONTEXT_SCAN_PACKAGES_EXCLUDE  = "javax.ws.rs.scan.packages.exclude";
+
+    String INIT_PARAM_APPLICATION  = CONTEXT_PARAM_APPLICATION;
+}
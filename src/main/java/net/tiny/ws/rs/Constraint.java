@@ -0,0 +1,437 @@
+package net.tiny.ws.rs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * URI变量的正则约束
+ * 常见的形式(\\d+, [a-z]+, [0-9a-fA-F]{8}, \\w{3,16}, UUID等字符类和量词的列)编译成直接扫描文字的匹配器，
+ * 含分组、选择、锚点等复杂的正则才使用 java.util.regex.Pattern 。
+ */
+abstract class Constraint {
+
+    private final String regex;
+
+    Constraint(final String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * 判断text的[start, end)区域是否匹配
+     */
+    abstract boolean matches(final String text, final int start, final int end);
+
+    boolean matches(final String text) {
+        return matches(text, 0, text.length());
+    }
+
+    String pattern() {
+        return regex;
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+
+    /**
+     * 编译正则约束
+     *
+     * @param regex
+     * @return
+     */
+    static Constraint compile(final String regex) {
+        final Atom[] atoms = parse(regex);
+        if (null == atoms || !isDeterministic(atoms)) {
+            return new Regex(regex, Pattern.compile(regex));
+        }
+        if (atoms.length == 1) {
+            return new Repeat(regex, atoms[0]);
+        }
+        return new Sequence(regex, atoms);
+    }
+
+    /**
+     * 可变长的字符类与其后所有的字符类不相交时，贪婪匹配的结果与正则相同
+     */
+    static boolean isDeterministic(final Atom[] atoms) {
+        for (int i = 0; i < atoms.length; i++) {
+            if (atoms[i].min == atoms[i].max) {
+                continue;
+            }
+            for (int n = i + 1; n < atoms.length; n++) {
+                if (!atoms[i].chars.disjoint(atoms[n].chars)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把正则解析成(字符类, 量词)的列，不支持的形式返回null
+     */
+    static Atom[] parse(final String regex) {
+        final List<Atom> atoms = new ArrayList<>();
+        int i = 0;
+        final int length = regex.length();
+        while (i < length) {
+            final char c = regex.charAt(i);
+            CharClass chars;
+            if (c == '[') {
+                final int close = parseClass(regex, i + 1);
+                if (close < 0) {
+                    return null;
+                }
+                chars = CharClass.parse(regex, i + 1, close);
+                if (null == chars) {
+                    return null;
+                }
+                i = close + 1;
+            } else if (c == '\\') {
+                if (i + 1 >= length) {
+                    return null;
+                }
+                chars = CharClass.escape(regex.charAt(i + 1));
+                if (null == chars) {
+                    return null;
+                }
+                i += 2;
+            } else if (c == '.') {
+                chars = CharClass.ANY;
+                i++;
+            } else if ("(){}*+?^$|".indexOf(c) >= 0) {
+                return null;
+            } else {
+                chars = CharClass.of(c);
+                if (null == chars) {
+                    return null;
+                }
+                i++;
+            }
+            // 量词
+            int min = 1;
+            int max = 1;
+            if (i < length) {
+                final char q = regex.charAt(i);
+                if (q == '+') {
+                    max = Integer.MAX_VALUE;
+                    i++;
+                } else if (q == '*') {
+                    min = 0;
+                    max = Integer.MAX_VALUE;
+                    i++;
+                } else if (q == '?') {
+                    min = 0;
+                    i++;
+                } else if (q == '{') {
+                    final int close = regex.indexOf('}', i);
+                    if (close < 0) {
+                        return null;
+                    }
+                    final String bounds = regex.substring(i + 1, close);
+                    final int comma = bounds.indexOf(',');
+                    try {
+                        if (comma < 0) {
+                            min = max = Integer.parseInt(bounds);
+                        } else {
+                            min = Integer.parseInt(bounds.substring(0, comma));
+                            final String upper = bounds.substring(comma + 1);
+                            max = upper.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(upper);
+                        }
+                    } catch (NumberFormatException ex) {
+                        return null;
+                    }
+                    if (min > max) {
+                        return null;
+                    }
+                    i = close + 1;
+                }
+                // 非贪婪，独占量词
+                if (i < length && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+                    return null;
+                }
+            }
+            atoms.add(new Atom(chars, min, max));
+        }
+        return atoms.toArray(new Atom[atoms.size()]);
+    }
+
+    private static int parseClass(final String regex, final int start) {
+        int i = start;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        // 开头的']'视为文字
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        while (i < regex.length()) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                return -1;
+            }
+            if (c == ']') {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /** 字符类和量词 */
+    static final class Atom {
+        final CharClass chars;
+        final int min;
+        final int max;
+
+        Atom(final CharClass chars, final int min, final int max) {
+            this.chars = chars;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * 字符类 ASCII字符用位表示
+     */
+    static final class CharClass {
+        static final int OTHER_NONE = 0;
+        static final int OTHER_ALL = 1;
+        /** '.' 除行结束符以外的所有字符 */
+        static final int OTHER_NOT_LINE_TERMINATOR = 2;
+
+        static final CharClass DIGIT = range('0', '9');
+        static final CharClass WORD = range('a', 'z').or(range('A', 'Z')).or(DIGIT).or(of('_'));
+        static final CharClass SPACE = of(' ').or(of('\t')).or(of('\n')).or(of('\u000B')).or(of('\f')).or(of('\r'));
+        static final CharClass ANY = new CharClass(~0L & ~((1L << '\n') | (1L << '\r')), ~0L, OTHER_NOT_LINE_TERMINATOR);
+
+        final long low;
+        final long high;
+        final int other;
+
+        CharClass(final long low, final long high, final int other) {
+            this.low = low;
+            this.high = high;
+            this.other = other;
+        }
+
+        boolean matches(final char c) {
+            if (c < 64) {
+                return (low & (1L << c)) != 0;
+            }
+            if (c < 128) {
+                return (high & (1L << (c - 64))) != 0;
+            }
+            switch (other) {
+            case OTHER_ALL:
+                return true;
+            case OTHER_NOT_LINE_TERMINATOR:
+                return c != (char) 0x0085 && c != (char) 0x2028 && c != (char) 0x2029;
+            default:
+                return false;
+            }
+        }
+
+        boolean disjoint(final CharClass target) {
+            return (low & target.low) == 0 && (high & target.high) == 0
+                    && (other == OTHER_NONE || target.other == OTHER_NONE);
+        }
+
+        CharClass or(final CharClass target) {
+            final int others = (other == OTHER_ALL || target.other == OTHER_ALL) ? OTHER_ALL : Math.max(other, target.other);
+            return new CharClass(low | target.low, high | target.high, others);
+        }
+
+        CharClass not() {
+            return new CharClass(~low, ~high, other == OTHER_NONE ? OTHER_ALL : OTHER_NONE);
+        }
+
+        static CharClass of(final char c) {
+            return range(c, c);
+        }
+
+        static CharClass range(final char from, final char to) {
+            long low = 0L;
+            long high = 0L;
+            int other = OTHER_NONE;
+            for (int c = from; c <= to; c++) {
+                if (c < 64) {
+                    low |= 1L << c;
+                } else if (c < 128) {
+                    high |= 1L << (c - 64);
+                } else {
+                    // 非ASCII字符只支持整体
+                    return null;
+                }
+            }
+            return new CharClass(low, high, other);
+        }
+
+        /**
+         * 转义字符 \\d \\D \\w \\W \\s \\S 以及转义的记号
+         */
+        static CharClass escape(final char c) {
+            switch (c) {
+            case 'd':
+                return DIGIT;
+            case 'D':
+                return DIGIT.not();
+            case 'w':
+                return WORD;
+            case 'W':
+                return WORD.not();
+            case 's':
+                return SPACE;
+            case 'S':
+                return SPACE.not();
+            default:
+                if (c < 128 && !Character.isLetterOrDigit(c)) {
+                    return of(c);
+                }
+                return null;
+            }
+        }
+
+        /**
+         * 解析 '[' 与 ']' 之间的字符类
+         */
+        static CharClass parse(final String regex, final int start, final int end) {
+            int i = start;
+            boolean negate = false;
+            if (regex.charAt(i) == '^') {
+                negate = true;
+                i++;
+            }
+            CharClass chars = new CharClass(0L, 0L, OTHER_NONE);
+            while (i < end) {
+                char c = regex.charAt(i);
+                CharClass item;
+                if (c == '&' && i + 1 < end && regex.charAt(i + 1) == '&') {
+                    return null;
+                }
+                if (c == '\\') {
+                    item = escape(regex.charAt(i + 1));
+                    if (null == item) {
+                        return null;
+                    }
+                    c = regex.charAt(i + 1);
+                    i += 2;
+                    if (Character.isLetter(c)) {
+                        chars = chars.or(item);
+                        continue;
+                    }
+                } else {
+                    i++;
+                }
+                if (i + 1 < end && regex.charAt(i) == '-') {
+                    char to = regex.charAt(i + 1);
+                    int next = i + 2;
+                    if (to == '\\') {
+                        if (i + 2 >= end) {
+                            return null;
+                        }
+                        to = regex.charAt(i + 2);
+                        if (Character.isLetterOrDigit(to)) {
+                            return null;
+                        }
+                        next = i + 3;
+                    }
+                    if (to < c) {
+                        return null;
+                    }
+                    item = range(c, to);
+                    i = next;
+                } else {
+                    item = of(c);
+                }
+                if (null == item) {
+                    return null;
+                }
+                chars = chars.or(item);
+            }
+            return negate ? chars.not() : chars;
+        }
+    }
+
+    /** 单一字符类的重复 (\\d+, [a-z]*, \\w{3,16}) */
+    static final class Repeat extends Constraint {
+        private final CharClass chars;
+        private final int min;
+        private final int max;
+
+        Repeat(final String regex, final Atom atom) {
+            super(regex);
+            this.chars = atom.chars;
+            this.min = atom.min;
+            this.max = atom.max;
+        }
+
+        @Override
+        boolean matches(final String text, final int start, final int end) {
+            final int length = end - start;
+            if (length < min || length > max) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (!chars.matches(text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** 字符类的列 (UUID, [a-z]+-\\d+ 等) */
+    static final class Sequence extends Constraint {
+        private final Atom[] atoms;
+
+        Sequence(final String regex, final Atom[] atoms) {
+            super(regex);
+            this.atoms = atoms;
+        }
+
+        @Override
+        boolean matches(final String text, final int start, final int end) {
+            int pos = start;
+            for (Atom atom : atoms) {
+                int count = 0;
+                while (count < atom.max && pos < end && atom.chars.matches(text.charAt(pos))) {
+                    pos++;
+                    count++;
+                }
+                if (count < atom.min) {
+                    return false;
+                }
+            }
+            return pos == end;
+        }
+    }
+
+    /** 复杂的正则 */
+    static final class Regex extends Constraint {
+        /** 按线程重复使用的匹配器, 路由替换后与本约束一起释放 */
+        private final ThreadLocal<Matcher> matchers;
+
+        Regex(final String regex, final Pattern pattern) {
+            super(regex);
+            this.matchers = new ThreadLocal<Matcher>() {
+                @Override
+                protected Matcher initialValue() {
+                    return pattern.matcher("");
+                }
+            };
+        }
+
+        @Override
+        boolean matches(final String text, final int start, final int end) {
+            return UriCursor.get().region(matchers.get(), text, start, end).matches();
+        }
+    }
+}
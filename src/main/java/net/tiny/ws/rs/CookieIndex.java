@@ -0,0 +1,93 @@
+package net.tiny.ws.rs;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * 请求的Cookie索引
+ * 第一次绑定@CookieParam时把所有"Cookie"头一次解析成名字和值的Map，同一请求的其他@CookieParam共用。
+ * 索引按请求头的实体保存在线程里，不使用 HttpExchange#setAttribute (JDK8中该属性由HttpContext共有)。
+ */
+final class CookieIndex {
+
+    static final String HEADER = "Cookie";
+
+    private static final ThreadLocal<CookieIndex> CURRENT = new ThreadLocal<>();
+
+    private final Headers headers;
+    private final Map<String, String> cookies;
+
+    private CookieIndex(final Headers headers, final Map<String, String> cookies) {
+        this.headers = headers;
+        this.cookies = cookies;
+    }
+
+    /**
+     * 取得请求的Cookie索引，没有解析过时解析
+     *
+     * @param he
+     * @return
+     */
+    static CookieIndex of(final HttpExchange he) {
+        final Headers requestHeaders = he.getRequestHeaders();
+        CookieIndex index = CURRENT.get();
+        if (null == index || index.headers != requestHeaders) {
+            index = new CookieIndex(requestHeaders, parse(requestHeaders.get(HEADER)));
+            CURRENT.set(index);
+        }
+        return index;
+    }
+
+    /**
+     * 取得Cookie的值
+     *
+     * @param name
+     * @return 没有时为null
+     */
+    String get(final String name) {
+        return cookies.get(name);
+    }
+
+    Map<String, String> getCookies() {
+        return Collections.unmodifiableMap(cookies);
+    }
+
+    /**
+     * 解析"a=1; b=2"形式的Cookie头, 同名时取最初的值, 忽略"$Version"等属性
+     */
+    static Map<String, String> parse(final List<String> values) {
+        if (null == values || values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> cookies = new HashMap<>();
+        for (String value : values) {
+            final int length = value.length();
+            int start = 0;
+            while (start < length) {
+                int end = value.indexOf(';', start);
+                if (end < 0) {
+                    end = length;
+                }
+                final int pos = UriCursor.indexOf(value, '=', start, end);
+                if (pos > start) {
+                    final String name = value.substring(start, pos).trim();
+                    if (!name.isEmpty() && name.charAt(0) != '$') {
+                        cookies.putIfAbsent(name, value.substring(pos + 1, end).trim());
+                    }
+                }
+                start = end + 1;
+            }
+        }
+        return cookies;
+    }
+
+    @Override
+    public String toString() {
+        return cookies.toString();
+    }
+}
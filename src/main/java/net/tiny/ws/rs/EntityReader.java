@@ -0,0 +1,211 @@
+package net.tiny.ws.rs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * 请求体(没有注解的方法参数)的读取器
+ * InputStream, Reader, byte[], String 直接取得，其他类型由 {@link JsonReader} 从输入流解析。
+ * 请求体的大小由 {@link #limit(HttpExchange, long)} 限制，超过时为413。
+ */
+final class EntityReader {
+
+    static final String CONTENT_TYPE = "Content-Type";
+    static final String CONTENT_LENGTH = "Content-Length";
+    /** 413 Request Entity Too Large */
+    static final int HTTP_ENTITY_TOO_LARGE = 413;
+    /** 415 Unsupported Media Type */
+    static final int HTTP_UNSUPPORTED_TYPE = 415;
+
+    private EntityReader() {
+    }
+
+    /**
+     * 读取请求体
+     *
+     * @param he
+     * @param type 参数的类型
+     * @param genericType 参数的泛型类型
+     * @return 没有请求体时为null
+     * @throws IOException
+     * @throws EntityException 请求体过大或格式不正确时
+     */
+    static Object read(final HttpExchange he, final Class<?> type, final Type genericType) throws IOException {
+        final InputStream in = he.getRequestBody();
+        if (type == InputStream.class) {
+            return in;
+        }
+        final Charset charset = charset(he.getRequestHeaders().getFirst(CONTENT_TYPE));
+        if (type == Reader.class) {
+            return new InputStreamReader(in, charset);
+        }
+        if (type == byte[].class) {
+            return readAll(in);
+        }
+        if (type == String.class) {
+            return new String(readAll(in), charset);
+        }
+        try {
+            return JsonReader.read(new InputStreamReader(in, charset), type, genericType);
+        } catch (IllegalArgumentException ex) {
+            throw new EntityException(HttpURLConnection.HTTP_BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * 限制请求体的大小
+     *
+     * @param he
+     * @param maxSize 最大字节数, 0以下时不限制
+     * @throws EntityException "Content-Length"超过最大字节数时
+     */
+    static void limit(final HttpExchange he, final long maxSize) throws EntityException {
+        if (maxSize <= 0L) {
+            return;
+        }
+        final String length = he.getRequestHeaders().getFirst(CONTENT_LENGTH);
+        if (null != length) {
+            try {
+                if (Long.parseLong(length.trim()) > maxSize) {
+                    throw tooLarge(maxSize);
+                }
+            } catch (NumberFormatException ex) {
+                throw new EntityException(HttpURLConnection.HTTP_BAD_REQUEST, "Invalid Content-Length " + length, ex);
+            }
+        }
+        he.setStreams(new LimitedInputStream(he.getRequestBody(), maxSize), null);
+    }
+
+    /**
+     * 判断请求的Content-Type是否为可接受的类型
+     *
+     * @param contentType 请求的Content-Type, 可为null
+     * @param consumes @Consumes 的值, 没有时为null
+     * @return
+     */
+    static boolean acceptable(final String contentType, final String[] consumes) {
+        if (null == consumes || consumes.length == 0 || null == contentType) {
+            return true;
+        }
+        final String mediaType = mediaType(contentType);
+        for (String consume : consumes) {
+            for (String type : consume.split(",")) {
+                final String accept = mediaType(type);
+                if (accept.equals("*/*") || accept.equals(mediaType)
+                        || (accept.endsWith("/*") && mediaType.startsWith(accept.substring(0, accept.length() - 1)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 去掉参数的小写媒体类型 "application/json; charset=UTF-8" -&gt; "application/json"
+     */
+    static String mediaType(final String contentType) {
+        final int pos = contentType.indexOf(';');
+        return (pos < 0 ? contentType : contentType.substring(0, pos)).trim().toLowerCase();
+    }
+
+    static Charset charset(final String contentType) {
+        if (null != contentType) {
+            for (String param : contentType.split(";")) {
+                final String value = param.trim();
+                if (value.regionMatches(true, 0, "charset=", 0, 8)) {
+                    try {
+                        return Charset.forName(value.substring(8).replace("\"", "").trim());
+                    } catch (RuntimeException ex) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int len;
+        while ((len = in.read(buffer)) > 0) {
+            out.write(buffer, 0, len);
+        }
+        return out.toByteArray();
+    }
+
+    private static EntityException tooLarge(final long maxSize) {
+        return new EntityException(HTTP_ENTITY_TOO_LARGE, String.format("Request entity too large (> %1$d)", maxSize), null);
+    }
+
+    /**
+     * 请求体不能读取时的异常, 带有响应的状态码
+     */
+    static final class EntityException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        EntityException(final int status, final String message, final Throwable cause) {
+            super(message, cause);
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+
+    /** 超过最大字节数时抛出异常的输入流 */
+    static final class LimitedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long count;
+
+        LimitedInputStream(final InputStream in, final long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(final long n) throws EntityException {
+            count += n;
+            if (count > maxSize) {
+                throw tooLarge(maxSize);
+            }
+        }
+    }
+}
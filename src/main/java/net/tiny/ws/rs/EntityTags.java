@@ -0,0 +1,101 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.zip.CRC32;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * 响应体的强ETag和"If-None-Match"的判断
+ * ETag由编码后的响应体的长度和CRC32生成，压缩时附加编码名以区分表示。
+ */
+final class EntityTags {
+
+    static final String ETAG = "ETag";
+    static final String IF_NONE_MATCH = "If-None-Match";
+
+    private EntityTags() {
+    }
+
+    /**
+     * 生成响应体的强ETag
+     *
+     * @param b 响应体
+     * @param off
+     * @param len
+     * @param encoding 压缩编码, 不压缩时为null
+     * @return "\"长度-CRC32[-编码]\""
+     */
+    static String of(final byte[] b, final int off, final int len, final String encoding) {
+        final CRC32 crc = new CRC32();
+        crc.update(b, off, len);
+        final StringBuilder tag = new StringBuilder(32).append('"')
+                .append(Integer.toHexString(len)).append('-').append(Long.toHexString(crc.getValue()));
+        if (null != encoding) {
+            tag.append('-').append(encoding);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * 是否为可以按"If-None-Match"返回304的请求 (GET, HEAD的200响应)
+     */
+    static boolean isConditional(final HttpExchange he, final int status) {
+        if (status != HttpURLConnection.HTTP_OK) {
+            return false;
+        }
+        final String method = he.getRequestMethod();
+        return "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+    }
+
+    /**
+     * 设置ETag, 与"If-None-Match"一致时送出304
+     *
+     * @param he
+     * @param etag
+     * @return 已送出304时为true
+     */
+    static boolean notModified(final HttpExchange he, final String etag) throws IOException {
+        he.getResponseHeaders().set(ETAG, etag);
+        if (!matches(he.getRequestHeaders().getFirst(IF_NONE_MATCH), etag)) {
+            return false;
+        }
+        // Not modified, 没有响应体
+        he.getResponseHeaders().remove(EntityReader.CONTENT_TYPE);
+        he.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+        return true;
+    }
+
+    /**
+     * 按弱比较判断"If-None-Match"是否包含ETag
+     *
+     * @param ifNoneMatch "\"a\", W/\"b\"", "*"
+     * @param etag
+     * @return
+     */
+    static boolean matches(final String ifNoneMatch, final String etag) {
+        if (null == ifNoneMatch || null == etag) {
+            return false;
+        }
+        final String opaque = opaque(etag);
+        int start = 0;
+        final int length = ifNoneMatch.length();
+        while (start < length) {
+            int end = ifNoneMatch.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            final String tag = ifNoneMatch.substring(start, end).trim();
+            if ("*".equals(tag) || opaque.equals(opaque(tag))) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static String opaque(final String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,118 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import com.sun.net.httpserver.Headers;
+
+/**
+ * 响应实体的写出器
+ * byte[], ByteBuffer, InputStream 不经过JSON变换直接写入响应体，
+ * Response的响应头按 {@link RestRuntimeDelegate#toHeaderString(Object)} 变换后设置。
+ */
+final class EntityWriter {
+
+    private static final int COPY_SIZE = 8192;
+
+    private EntityWriter() {
+    }
+
+    /**
+     * 把Response的响应头设置到交换的响应头
+     *
+     * @param metadata
+     * @param headers
+     */
+    static void headers(final MultivaluedMap<String, Object> metadata, final Headers headers) {
+        for (Map.Entry<String, List<Object>> entry : metadata.entrySet()) {
+            final List<Object> values = entry.getValue();
+            if (null == values || values.isEmpty()) {
+                continue;
+            }
+            final List<String> texts = new ArrayList<>(values.size());
+            for (Object value : values) {
+                if (null != value) {
+                    texts.add(RestRuntimeDelegate.toHeaderString(value));
+                }
+            }
+            headers.put(entry.getKey(), texts);
+        }
+    }
+
+    /**
+     * 是否为直接写入的实体
+     */
+    static boolean isPassThrough(final Object entity) {
+        return entity instanceof byte[] || entity instanceof ByteBuffer || entity instanceof InputStream;
+    }
+
+    /**
+     * @return 实体的字节数, 不明时为-1
+     */
+    static long length(final Object entity) {
+        if (entity instanceof byte[]) {
+            return ((byte[]) entity).length;
+        }
+        if (entity instanceof ByteBuffer) {
+            return ((ByteBuffer) entity).remaining();
+        }
+        return -1L;
+    }
+
+    /**
+     * 把实体直接写入输出流, InputStream在写入后关闭
+     *
+     * @param entity byte[], ByteBuffer, InputStream
+     * @param out
+     * @throws IOException
+     */
+    static void write(final Object entity, final OutputStream out) throws IOException {
+        if (entity instanceof byte[]) {
+            out.write((byte[]) entity);
+        } else if (entity instanceof ByteBuffer) {
+            write((ByteBuffer) entity, out);
+        } else if (entity instanceof InputStream) {
+            try (InputStream in = (InputStream) entity) {
+                final byte[] buffer = new byte[COPY_SIZE];
+                int len;
+                while ((len = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, len);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException(String.format("Not a pass-through entity '%s'", entity.getClass().getName()));
+        }
+    }
+
+    /**
+     * 不改变ByteBuffer的位置写出剩余的内容
+     */
+    private static void write(final ByteBuffer entity, final OutputStream out) throws IOException {
+        if (entity.hasArray()) {
+            out.write(entity.array(), entity.arrayOffset() + entity.position(), entity.remaining());
+            return;
+        }
+        final ByteBuffer buffer = entity.duplicate();
+        final byte[] chunk = new byte[Math.min(COPY_SIZE, buffer.remaining())];
+        while (buffer.hasRemaining()) {
+            final int len = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, len);
+            out.write(chunk, 0, len);
+        }
+    }
+
+    /**
+     * 是否为JSON的媒体类型 "application/json", "application/*+json"
+     */
+    static boolean isJson(final String contentType) {
+        final String mediaType = EntityReader.mediaType(contentType);
+        return mediaType.endsWith("/json") || mediaType.endsWith("+json");
+    }
+}
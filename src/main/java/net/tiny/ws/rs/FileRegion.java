@@ -0,0 +1,59 @@
+package net.tiny.ws.rs;
+
+import java.nio.channels.FileChannel;
+
+/**
+ * 作为响应体送出的文件的一部分
+ * 资源方法返回后由RestfulHttpHandler用 FileChannel.transferTo 送出, 送出后关闭通道。
+ */
+public final class FileRegion {
+
+    private final FileChannel channel;
+    private final long position;
+    private final long count;
+    private final String contentType;
+
+    public FileRegion(FileChannel channel, long position, long count) {
+        this(channel, position, count, null);
+    }
+
+    /**
+     * @param channel 文件通道
+     * @param position 开始位置
+     * @param count 字节数
+     * @param contentType 响应的Content-Type, 为null时按@Produces
+     */
+    public FileRegion(FileChannel channel, long position, long count, String contentType) {
+        if (null == channel) {
+            throw new IllegalArgumentException("File channel is null");
+        }
+        if (position < 0L || count < 0L) {
+            throw new IllegalArgumentException(String.format("Invalid file region %d+%d", position, count));
+        }
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+        this.contentType = contentType;
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FileRegion#%d+%d", position, count);
+    }
+}
@@ -0,0 +1,211 @@
+package net.tiny.ws.rs;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+import javax.ws.rs.core.MediaType;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * File, Path, FileChannel, {@link FileRegion} 的响应
+ * 按文件大小送出Content-Length, 用 FileChannel.transferTo 写入响应体，文件内容不经过Java堆。
+ * 支持单一区间的"Range"请求(206, 416), 多个区间时送出整个文件。
+ */
+final class FileTransfer {
+
+    static final String RANGE = "Range";
+    static final String IF_RANGE = "If-Range";
+    static final String ACCEPT_RANGES = "Accept-Ranges";
+    static final String CONTENT_RANGE = "Content-Range";
+    static final String LAST_MODIFIED = "Last-Modified";
+    static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private static final String BYTES = "bytes";
+    private static final long[] NOT_SATISFIABLE = new long[0];
+
+    private FileTransfer() {
+    }
+
+    /**
+     * 是否为按文件送出的实体
+     */
+    static boolean isFile(final Object entity) {
+        return entity instanceof File || entity instanceof Path || entity instanceof FileChannel
+                || entity instanceof FileRegion;
+    }
+
+    /**
+     * 送出文件的响应, 送出后关闭文件通道
+     *
+     * @param he
+     * @param status 响应状态, 200时处理"Range"请求
+     * @param entity File, Path, FileChannel, FileRegion
+     * @param produces @Produces的类型, 没有时为null
+     * @throws IOException
+     */
+    static void send(final HttpExchange he, final int status, final Object entity, final String produces)
+            throws IOException {
+        Path path = null;
+        String contentType = produces;
+        final FileChannel channel;
+        long position = 0L;
+        final long size;
+        if (entity instanceof FileRegion) {
+            final FileRegion region = (FileRegion) entity;
+            channel = region.getChannel();
+            position = region.getPosition();
+            size = region.getCount();
+            if (null != region.getContentType()) {
+                contentType = region.getContentType();
+            }
+        } else if (entity instanceof FileChannel) {
+            channel = (FileChannel) entity;
+            size = channel.size();
+        } else {
+            path = entity instanceof File ? ((File) entity).toPath() : (Path) entity;
+            if (!Files.isRegularFile(path)) {
+                he.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+                return;
+            }
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+            if (null == contentType) {
+                contentType = contentType(path);
+            }
+        }
+        try {
+            final Headers headers = he.getResponseHeaders();
+            if (null == headers.getFirst(EntityReader.CONTENT_TYPE)) {
+                headers.set(EntityReader.CONTENT_TYPE, null != contentType ? contentType : MediaType.APPLICATION_OCTET_STREAM);
+            }
+            String lastModified = null;
+            if (null != path) {
+                lastModified = RestRuntimeDelegate.formatDate(new Date(Files.getLastModifiedTime(path).toMillis()));
+                headers.set(LAST_MODIFIED, lastModified);
+            }
+            int code = status;
+            long start = 0L;
+            long length = size;
+            if (status == HttpURLConnection.HTTP_OK) {
+                headers.set(ACCEPT_RANGES, BYTES);
+                final String range = he.getRequestHeaders().getFirst(RANGE);
+                final String ifRange = he.getRequestHeaders().getFirst(IF_RANGE);
+                // "If-Range"与Last-Modified不一致时送出整个文件
+                if (null != range && (null == ifRange || ifRange.equals(lastModified))) {
+                    final long[] bounds = range(range, size);
+                    if (bounds == NOT_SATISFIABLE) {
+                        headers.set(CONTENT_RANGE, BYTES + " */" + size);
+                        he.sendResponseHeaders(HTTP_RANGE_NOT_SATISFIABLE, -1);
+                        return;
+                    }
+                    if (null != bounds) {
+                        code = HttpURLConnection.HTTP_PARTIAL;
+                        start = bounds[0];
+                        length = bounds[1] - bounds[0] + 1L;
+                        headers.set(CONTENT_RANGE, BYTES + " " + bounds[0] + "-" + bounds[1] + "/" + size);
+                    }
+                }
+            }
+            if (length == 0L) {
+                he.sendResponseHeaders(code, -1);
+                return;
+            }
+            he.sendResponseHeaders(code, length);
+            try (OutputStream body = he.getResponseBody()) {
+                transfer(channel, position + start, length, Channels.newChannel(body));
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * 按 FileChannel.transferTo 写出文件的区间
+     */
+    static void transfer(final FileChannel channel, long position, long count, final WritableByteChannel target)
+            throws IOException {
+        while (count > 0L) {
+            final long n = channel.transferTo(position, count, target);
+            if (n <= 0L) {
+                throw new EOFException(String.format("File truncated at %d, %d bytes remaining", position, count));
+            }
+            position += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * 解析"Range: bytes=0-499", "bytes=500-", "bytes=-500"
+     *
+     * @param header "Range"请求头
+     * @param size 文件大小
+     * @return 开始和结束的位置(包含), 送出整个文件时为null, 区间不满足时为空数组
+     */
+    static long[] range(final String header, final long size) {
+        final String value = header.trim();
+        if (!value.regionMatches(true, 0, BYTES + "=", 0, BYTES.length() + 1) || value.indexOf(',') >= 0) {
+            return null;
+        }
+        final int dash = value.indexOf('-', BYTES.length() + 1);
+        if (dash < 0) {
+            return null;
+        }
+        final String first = value.substring(BYTES.length() + 1, dash).trim();
+        final String last = value.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                // 最后的N字节
+                final long suffix = Long.parseLong(last);
+                if (suffix <= 0L || size == 0L) {
+                    return NOT_SATISFIABLE;
+                }
+                return new long[] {Math.max(0L, size - suffix), size - 1L};
+            }
+            final long start = Long.parseLong(first);
+            final long end = last.isEmpty() ? size - 1L : Long.parseLong(last);
+            if (start >= size) {
+                return NOT_SATISFIABLE;
+            }
+            if (start < 0L || end < start) {
+                return null;
+            }
+            return new long[] {start, Math.min(end, size - 1L)};
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 按文件名推测Content-Type
+     *
+     * @return 不明时为null
+     */
+    static String contentType(final Path path) {
+        final Path name = path.getFileName();
+        if (null == name) {
+            return null;
+        }
+        final String type = URLConnection.getFileNameMap().getContentTypeFor(name.toString());
+        if (null != type) {
+            return type;
+        }
+        try {
+            return Files.probeContentType(path);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
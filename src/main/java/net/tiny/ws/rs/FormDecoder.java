@@ -0,0 +1,243 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * application/x-www-form-urlencoded 请求体的解码器
+ * 只在路由有@FormParam且请求的Content-Type一致时，边读取边一次解码请求体。
+ * 只解码路由绑定的名字的值，其他值直接跳过；解码用的缓冲区按线程重复使用(超过8KB的不保留)。
+ */
+final class FormDecoder {
+
+    static final String FORM_TYPE = "application/x-www-form-urlencoded";
+
+    /** 按线程保留的解码缓冲区的最大字节数, 超过时只在本次解码中使用 */
+    static final int MAX_RETAINED = 8192;
+
+    /** [0] 读取缓冲区, [1] 名字和值的解码缓冲区 */
+    static final ThreadLocal<byte[][]> BUFFERS = new ThreadLocal<byte[][]>() {
+        @Override
+        protected byte[][] initialValue() {
+            return new byte[][] {new byte[4096], new byte[256]};
+        }
+    };
+
+    /** 读取名字中 */
+    private static final int NAME = -2;
+    /** 跳过不需要的值 */
+    private static final int SKIP = -1;
+
+    private final String[] names;
+    /** 名字的UTF-8字节列 */
+    private final byte[][] keys;
+    /** 名字对应的参数下标 */
+    private final int[] slots;
+
+    private FormDecoder(final String[] names, final int[] slots) {
+        this.names = names;
+        this.slots = slots;
+        this.keys = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            keys[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 按@FormParam的参数生成解码器
+     *
+     * @param binders
+     * @return 没有@FormParam时为null
+     */
+    static FormDecoder of(final ParameterBinder[] binders) {
+        final List<String> names = new ArrayList<>();
+        final List<Integer> slots = new ArrayList<>();
+        for (ParameterBinder binder : binders) {
+            if (binder.form && binder.slot >= 0 && !names.contains(binder.key)) {
+                names.add(binder.key);
+                slots.add(binder.slot);
+            }
+        }
+        if (names.isEmpty()) {
+            return null;
+        }
+        final int[] indexes = new int[slots.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = slots.get(i);
+        }
+        return new FormDecoder(names.toArray(new String[names.size()]), indexes);
+    }
+
+    /**
+     * 请求为form时解码请求体，把值写入参数数组
+     *
+     * @param he
+     * @param target 按参数下标的参数数组
+     * @return 是否解码了请求体
+     * @throws IOException
+     */
+    boolean decode(final HttpExchange he, final Object[] target) throws IOException {
+        final String contentType = he.getRequestHeaders().getFirst(EntityReader.CONTENT_TYPE);
+        if (null == contentType || !FORM_TYPE.equals(EntityReader.mediaType(contentType))) {
+            return false;
+        }
+        decode(he.getRequestBody(), EntityReader.charset(contentType), target);
+        return true;
+    }
+
+    /**
+     * 解码"a=1&amp;b=%E5%90%8D"形式的输入流
+     * 请求体的值优先于URI的值，同名的值有多个时写入String[]
+     */
+    void decode(final InputStream in, final Charset charset, final Object[] target) throws IOException {
+        final byte[][] buffers = BUFFERS.get();
+        final byte[] input = buffers[0];
+        byte[] token = buffers[1];
+        final boolean[] found = new boolean[names.length];
+        int length = 0;
+        int index = NAME;
+        // 0: 一般, 1: '%'之后, 2: '%X'之后
+        int escape = 0;
+        int high = 0;
+        int n;
+        while ((n = in.read(input, 0, input.length)) > 0) {
+            for (int i = 0; i < n; i++) {
+                final byte b = input[i];
+                // 最多追加3字节
+                if (length + 3 > token.length) {
+                    token = Arrays.copyOf(token, token.length * 2);
+                    if (token.length <= MAX_RETAINED) {
+                        buffers[1] = token;
+                    }
+                }
+                if (escape != 0 && (b == '&' || (b == '=' && index == NAME))) {
+                    // 不完整的转义按原样保留
+                    length = unescaped(token, length, escape, high);
+                    escape = 0;
+                }
+                if (b == '&') {
+                    if (index >= 0 || (index == NAME && length > 0)) {
+                        final int key = index >= 0 ? index : indexOf(token, length, charset);
+                        if (key >= 0) {
+                            put(key, index >= 0 ? new String(token, 0, length, charset) : "", target, found);
+                        }
+                    }
+                    index = NAME;
+                    length = 0;
+                    escape = 0;
+                    continue;
+                }
+                if (index == SKIP) {
+                    continue;
+                }
+                if (b == '=' && index == NAME) {
+                    index = indexOf(token, length, charset);
+                    length = 0;
+                    escape = 0;
+                    continue;
+                }
+                if (escape == 1) {
+                    high = Character.digit(b, 16);
+                    if (high < 0) {
+                        token[length++] = '%';
+                        token[length++] = b;
+                        escape = 0;
+                    } else {
+                        escape = 2;
+                    }
+                } else if (escape == 2) {
+                    final int low = Character.digit(b, 16);
+                    if (low < 0) {
+                        token[length++] = '%';
+                        token[length++] = (byte) Character.forDigit(high, 16);
+                        token[length++] = b;
+                    } else {
+                        token[length++] = (byte) ((high << 4) | low);
+                    }
+                    escape = 0;
+                } else if (b == '%') {
+                    escape = 1;
+                } else {
+                    token[length++] = b == '+' ? (byte) ' ' : b;
+                }
+            }
+        }
+        if (escape != 0) {
+            length = unescaped(token, length, escape, high);
+        }
+        if (index >= 0) {
+            put(index, new String(token, 0, length, charset), target, found);
+        } else if (index == NAME && length > 0) {
+            final int key = indexOf(token, length, charset);
+            if (key >= 0) {
+                put(key, "", target, found);
+            }
+        }
+    }
+
+    private static int unescaped(final byte[] token, final int length, final int escape, final int high) {
+        int len = length;
+        token[len++] = '%';
+        if (escape == 2) {
+            token[len++] = (byte) Character.forDigit(high, 16);
+        }
+        return len;
+    }
+
+    private int indexOf(final byte[] token, final int length, final Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)) {
+            for (int i = 0; i < keys.length; i++) {
+                final byte[] key = keys[i];
+                if (key.length == length && regionEquals(key, token, length)) {
+                    return i;
+                }
+            }
+            return SKIP;
+        }
+        final String name = new String(token, 0, length, charset);
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return SKIP;
+    }
+
+    private static boolean regionEquals(final byte[] key, final byte[] token, final int length) {
+        for (int i = 0; i < length; i++) {
+            if (key[i] != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(final int key, final String value, final Object[] target, final boolean[] found) {
+        final int slot = slots[key];
+        if (!found[key]) {
+            found[key] = true;
+            target[slot] = value;
+            return;
+        }
+        final Object current = target[slot];
+        if (current instanceof String[]) {
+            final String[] values = Arrays.copyOf((String[]) current, ((String[]) current).length + 1);
+            values[values.length - 1] = value;
+            target[slot] = values;
+        } else {
+            target[slot] = new String[] {String.valueOf(current), value};
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + Arrays.toString(names);
+    }
+}
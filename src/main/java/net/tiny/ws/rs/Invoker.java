@@ -0,0 +1,77 @@
+package net.tiny.ws.rs;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * RestService方法的调用器
+ * 在MethodPattern生成时把方法绑定成 (Object, Object[])Object 型的 MethodHandle，
+ * 请求时用invokeExact调用，不经过 Method#invoke 的访问检查和 InvocationTargetException 的包装。
+ * 方法抛出的异常原样传出。
+ */
+final class Invoker {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Method method;
+    private final MethodHandle handle;
+
+    private Invoker(final Method method, final MethodHandle handle) {
+        this.method = method;
+        this.handle = handle;
+    }
+
+    /**
+     * 生成方法的调用器
+     *
+     * @param method
+     * @return
+     * @throws IllegalArgumentException 方法不能访问时
+     */
+    static Invoker of(final Method method) {
+        MethodHandle target;
+        try {
+            target = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException ex) {
+            try {
+                // 非public类的public方法
+                method.setAccessible(true);
+                target = LOOKUP.unreflect(method);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new IllegalArgumentException(String.format("Can not access method '%s'", method), e);
+            }
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            target = MethodHandles.dropArguments(target, 0, Object.class);
+        }
+        final int count = method.getParameterCount();
+        // (Object, Object...)Object 返回值为void时返回null, 原始类型的参数自动拆箱
+        target = target.asType(MethodType.genericMethodType(count + 1))
+                .asSpreader(Object[].class, count);
+        return new Invoker(method, target);
+    }
+
+    /**
+     * 调用方法
+     *
+     * @param target 服务实体(static方法时忽略)
+     * @param args 参数
+     * @return 返回值, void时为null
+     * @throws Throwable 方法抛出的异常
+     */
+    Object invoke(final Object target, final Object[] args) throws Throwable {
+        return (Object) handle.invokeExact(target, args);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + handle.type() + " " + method.getName();
+    }
+}
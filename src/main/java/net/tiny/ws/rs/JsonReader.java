@@ -0,0 +1,490 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 从输入流读取JSON的解析器
+ * 按缓冲区逐段读取文字，不生成整个请求体的文字列，但不是流式绑定:
+ * 先把整个请求体解析为Map, List, Long, Double的树，再按参数的类型变换。
+ * 变换成整数类型时，有小数部分或超出范围的值不截断，作为格式错误(400)处理。
+ * 对象和数组的嵌套超过{@link #MAX_DEPTH}层时也作为格式错误处理，不因递归而栈溢出。
+ * Bean按非static, 非transient字段设置值 (与 {@link BeanWriter} 相同)。
+ * 不使用 net.tiny.config.JsonParser#unmarshal: 它需要整个请求体的文字列，
+ * 而且只按Class变换，不能取得List&lt;Item&gt;等泛型参数的元素类型。
+ */
+final class JsonReader {
+
+    /** 对象和数组的最大嵌套层数 */
+    static final int MAX_DEPTH = 512;
+    private static final ConcurrentMap<Class<?>, Map<String, Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+    private int depth;
+    private final StringBuilder text = new StringBuilder();
+
+    JsonReader(final Reader reader) {
+        this(reader, 4096);
+    }
+
+    JsonReader(final Reader reader, final int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * 读取JSON并变换成指定的类型
+     *
+     * @param reader
+     * @param type
+     * @param genericType
+     * @return 空的输入时为null
+     * @throws IOException
+     * @throws IllegalArgumentException JSON的格式不正确或不能变换时
+     */
+    static Object read(final Reader reader, final Class<?> type, final Type genericType) throws IOException {
+        final JsonReader json = new JsonReader(reader);
+        if (json.skipWhitespace() < 0) {
+            return null;
+        }
+        final Object value = json.readValue();
+        if (json.skipWhitespace() >= 0) {
+            throw json.error("Unexpected character");
+        }
+        return convert(value, type, genericType);
+    }
+
+    /**
+     * 读取一个值
+     */
+    Object readValue() throws IOException {
+        final int c = skipWhitespace();
+        switch (c) {
+        case '{':
+            pos++;
+            enter();
+            final Map<String, Object> map = readObject();
+            depth--;
+            return map;
+        case '[':
+            pos++;
+            enter();
+            final List<Object> list = readArray();
+            depth--;
+            return list;
+        case '"':
+            pos++;
+            return readString();
+        case 't':
+            expect("true");
+            return Boolean.TRUE;
+        case 'f':
+            expect("false");
+            return Boolean.FALSE;
+        case 'n':
+            expect("null");
+            return null;
+        case -1:
+            throw error("Unexpected end");
+        default:
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return readNumber();
+            }
+            throw error("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Too deep");
+        }
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        if (skipWhitespace() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            if (skipWhitespace() != '"') {
+                throw error("Expected name");
+            }
+            pos++;
+            final String name = readString();
+            if (skipWhitespace() != ':') {
+                throw error("Expected ':'");
+            }
+            pos++;
+            map.put(name, readValue());
+            final int c = skipWhitespace();
+            pos++;
+            if (c == '}') {
+                return map;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() throws IOException {
+        final List<Object> list = new ArrayList<>();
+        if (skipWhitespace() == ']') {
+            pos++;
+            return list;
+        }
+        while (true) {
+            list.add(readValue());
+            final int c = skipWhitespace();
+            pos++;
+            if (c == ']') {
+                return list;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw error("Unterminated string");
+            }
+            // 不含转义的区间一次复制
+            int start = pos;
+            while (pos < limit) {
+                final char c = buffer[pos];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                pos++;
+            }
+            text.append(buffer, start, pos - start);
+            if (pos == limit) {
+                continue;
+            }
+            final char c = buffer[pos++];
+            if (c == '"') {
+                return text.toString();
+            }
+            text.append(readEscape());
+        }
+    }
+
+    private char readEscape() throws IOException {
+        final int c = read();
+        switch (c) {
+        case '"':
+        case '\\':
+        case '/':
+            return (char) c;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'u':
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                final int digit = Character.digit(read(), 16);
+                if (digit < 0) {
+                    throw error("Invalid unicode escape");
+                }
+                value = (value << 4) | digit;
+            }
+            return (char) value;
+        default:
+            throw error("Invalid escape");
+        }
+    }
+
+    private Object readNumber() throws IOException {
+        text.setLength(0);
+        boolean decimal = false;
+        while (pos < limit || fill()) {
+            final char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+                text.append(c);
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+                text.append(c);
+            } else {
+                break;
+            }
+            pos++;
+        }
+        final String number = text.toString();
+        try {
+            if (!decimal) {
+                final Long value = ValueParser.parseLong(number, 0, number.length());
+                if (null != value) {
+                    return value;
+                }
+            }
+            return Double.valueOf(number);
+        } catch (NumberFormatException ex) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private void expect(final String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw error("Expected '" + literal + "'");
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * 跳过空白, 返回下一个文字(不前进), 结束时为-1
+     */
+    private int skipWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            final char c = buffer[pos];
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private boolean fill() throws IOException {
+        final int len = reader.read(buffer, 0, buffer.length);
+        if (len <= 0) {
+            pos = limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = len;
+        return true;
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException("Invalid JSON: " + message);
+    }
+
+    /**
+     * 把解析的值变换成指定的类型
+     *
+     * @param value Map, List, String, Long, Double, Boolean, null
+     * @param type
+     * @param genericType 集合的要素类型用, 可为null
+     * @return
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object convert(final Object value, final Class<?> type, final Type genericType) {
+        if (null == value) {
+            return null;
+        }
+        if (type == Object.class) {
+            return value;
+        }
+        if (value instanceof Map) {
+            if (Map.class.isAssignableFrom(type)) {
+                final Type valueType = typeArgument(genericType, 1);
+                final Map<Object, Object> map = type.isInterface() ? new LinkedHashMap<>() : (Map) newInstance(type);
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                    map.put(entry.getKey(), convert(entry.getValue(), rawType(valueType), valueType));
+                }
+                return map;
+            }
+            return toBean((Map<String, Object>) value, type);
+        }
+        if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            if (type.isArray()) {
+                final Class<?> componentType = type.getComponentType();
+                final Type elementType = genericType instanceof GenericArrayType
+                        ? ((GenericArrayType) genericType).getGenericComponentType() : componentType;
+                final Object array = Array.newInstance(componentType, list.size());
+                for (int i = 0; i < list.size(); i++) {
+                    Array.set(array, i, convert(list.get(i), componentType, elementType));
+                }
+                return array;
+            }
+            if (Collection.class.isAssignableFrom(type)) {
+                final Type elementType = typeArgument(genericType, 0);
+                final Collection<Object> collection;
+                if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+                    collection = (Collection) newInstance(type);
+                } else if (Set.class.isAssignableFrom(type)) {
+                    collection = new LinkedHashSet<>();
+                } else {
+                    collection = new ArrayList<>();
+                }
+                for (Object element : list) {
+                    collection.add(convert(element, rawType(elementType), elementType));
+                }
+                return collection;
+            }
+            throw new IllegalArgumentException(String.format("Can not convert JSON array to '%s'", type.getName()));
+        }
+        if (value instanceof Number) {
+            final Number number = (Number) value;
+            if (type == int.class || type == Integer.class) {
+                return (int) integral(number, Integer.MIN_VALUE, Integer.MAX_VALUE, type);
+            }
+            if (type == long.class || type == Long.class) {
+                return integral(number, Long.MIN_VALUE, Long.MAX_VALUE, type);
+            }
+            if (type == double.class || type == Double.class) {
+                return number.doubleValue();
+            }
+            if (type == float.class || type == Float.class) {
+                return number.floatValue();
+            }
+            if (type == short.class || type == Short.class) {
+                return (short) integral(number, Short.MIN_VALUE, Short.MAX_VALUE, type);
+            }
+            if (type == byte.class || type == Byte.class) {
+                return (byte) integral(number, Byte.MIN_VALUE, Byte.MAX_VALUE, type);
+            }
+        }
+        if (type.isInstance(value) || (type == boolean.class && value instanceof Boolean)) {
+            return value;
+        }
+        if (type == String.class || type == CharSequence.class) {
+            return value.toString();
+        }
+        return ParameterBinder.converter(type).apply(value.toString());
+    }
+
+    /**
+     * 变换成整数, 不截断小数部分, 不溢出
+     *
+     * @throws IllegalArgumentException 有小数部分或超出范围时
+     */
+    private static long integral(final Number number, final long min, final long max, final Class<?> type) {
+        final long value;
+        if (number instanceof Long) {
+            value = number.longValue();
+        } else {
+            final double d = number.doubleValue();
+            // 2^63 以上不能变换成long
+            if (d != Math.rint(d) || d < -9.223372036854775808E18d || d >= 9.223372036854775808E18d) {
+                throw new IllegalArgumentException(String.format("Can not convert %1$s to '%2$s'", number, type.getName()));
+            }
+            value = (long) d;
+        }
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(String.format("Can not convert %1$s to '%2$s'", number, type.getName()));
+        }
+        return value;
+    }
+
+    private static Object toBean(final Map<String, Object> values, final Class<?> type) {
+        final Object bean = newInstance(type);
+        final Map<String, Field> fields = fields(type);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            final Field field = fields.get(entry.getKey());
+            if (null == field) {
+                // 忽略不明的属性
+                continue;
+            }
+            final Object value = convert(entry.getValue(), field.getType(), field.getGenericType());
+            if (null == value && field.getType().isPrimitive()) {
+                continue;
+            }
+            try {
+                field.set(bean, value);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalArgumentException(ex.getMessage(), ex);
+            }
+        }
+        return bean;
+    }
+
+    private static Map<String, Field> fields(final Class<?> type) {
+        Map<String, Field> fields = FIELDS.get(type);
+        if (null != fields) {
+            return fields;
+        }
+        fields = new HashMap<>();
+        for (Class<?> c = type; null != c && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+                        || fields.containsKey(field.getName())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.put(field.getName(), field);
+            }
+        }
+        FIELDS.putIfAbsent(type, fields);
+        return fields;
+    }
+
+    private static Object newInstance(final Class<?> type) {
+        try {
+            final Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            throw new IllegalArgumentException(String.format("Can not create '%s'", type.getName()), ex);
+        }
+    }
+
+    private static Type typeArgument(final Type genericType, final int index) {
+        if (genericType instanceof ParameterizedType) {
+            final Type[] args = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (index < args.length) {
+                return args[index];
+            }
+        }
+        return Object.class;
+    }
+
+    private static Class<?> rawType(final Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+}
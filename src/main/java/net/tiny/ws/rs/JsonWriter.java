@@ -0,0 +1,309 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.BaseStream;
+
+import net.tiny.config.JsonParser;
+
+/**
+ * 把结果按UTF-8直接写入输出流的JSON写出器
+ * 集合, 数组, Map按要素逐个写出，不生成整个JSON文字列；
+ * 文字列, 数值, 布尔值直接编码，Bean按实际类的 {@link BeanWriter} 写出
+ * (与声明的返回类型无关)，其他对象按 {@link JsonParser#marshal(Object)} 变换。
+ */
+final class JsonWriter {
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        long power = 1L;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10L;
+        }
+    }
+
+    private JsonWriter() {
+    }
+
+    /**
+     * 把值按JSON写入输出流
+     *
+     * @param value
+     * @param out
+     * @throws IOException
+     */
+    static void write(final Object value, final OutputStream out) throws IOException {
+        if (null == value) {
+            out.write(NULL);
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            writeString(value.toString(), out);
+        } else if (value instanceof Boolean) {
+            writeBoolean((Boolean) value, out);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue(), out);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, out);
+        } else if (value instanceof Iterable) {
+            writeArray(((Iterable<?>) value).iterator(), out);
+        } else if (value instanceof Iterator) {
+            writeArray((Iterator<?>) value, out);
+        } else if (value instanceof BaseStream) {
+            try (BaseStream<?, ?> stream = (BaseStream<?, ?>) value) {
+                writeArray(stream.iterator(), out);
+            }
+        } else if (value.getClass().isArray() && !(value instanceof byte[])) {
+            writeArray(value, out);
+        } else {
+            final BeanWriter writer = BeanWriter.of(value.getClass());
+            if (null != writer) {
+                writer.write(value, out);
+            } else {
+                // 没有属性的类, Double等
+                writeUtf8(JsonParser.marshal(value), out);
+            }
+        }
+    }
+
+    static void writeBoolean(final boolean value, final OutputStream out) throws IOException {
+        out.write(value ? TRUE : FALSE);
+    }
+
+    /**
+     * 不生成文字列，按位写出整数
+     */
+    static void writeLong(final long value, final OutputStream out) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value), out);
+            return;
+        }
+        long v = value;
+        if (v < 0) {
+            out.write('-');
+            v = -v;
+        }
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && v >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            final long power = POWERS_OF_TEN[i];
+            final int digit = (int) (v / power);
+            out.write('0' + digit);
+            v -= digit * power;
+        }
+    }
+
+    /**
+     * NaN和Infinity不是JSON的数值, 写出null
+     */
+    static void writeDouble(final double value, final OutputStream out) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.write(NULL);
+        } else {
+            writeAscii(Double.toString(value), out);
+        }
+    }
+
+    /**
+     * float按Float#toString写出, 不经过double变换 (0.1f 不写成 0.10000000149011612)
+     */
+    static void writeFloat(final float value, final OutputStream out) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            out.write(NULL);
+        } else {
+            writeAscii(Float.toString(value), out);
+        }
+    }
+
+    static void writeArray(final Iterator<?> it, final OutputStream out) throws IOException {
+        out.write('[');
+        boolean first = true;
+        while (it.hasNext()) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            write(it.next(), out);
+        }
+        out.write(']');
+    }
+
+    /**
+     * 取得逐步写出的要素
+     *
+     * @param value Stream, Iterator
+     * @return 其他类型时为null
+     */
+    static Iterator<?> elements(final Object value) {
+        if (value instanceof Iterator) {
+            return (Iterator<?>) value;
+        }
+        if (value instanceof BaseStream) {
+            return ((BaseStream<?, ?>) value).iterator();
+        }
+        return null;
+    }
+
+    /**
+     * 按要素逐个写出JSON数组或NDJSON(每行一个值)
+     * 写出第一个要素后调用flush(), 之后由输出流的缓冲区决定送出的时机。
+     *
+     * @param it
+     * @param out
+     * @param lines true时为NDJSON
+     * @throws IOException
+     */
+    static void writeStream(final Iterator<?> it, final OutputStream out, final boolean lines) throws IOException {
+        if (!lines) {
+            out.write('[');
+        }
+        boolean first = true;
+        while (it.hasNext()) {
+            if (!first && !lines) {
+                out.write(',');
+            }
+            write(it.next(), out);
+            if (lines) {
+                out.write('\n');
+            }
+            if (first) {
+                out.flush();
+                first = false;
+            }
+        }
+        if (!lines) {
+            out.write(']');
+        }
+    }
+
+    private static void writeArray(final Object array, final OutputStream out) throws IOException {
+        out.write('[');
+        final int length = Array.getLength(array);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            write(Array.get(array, i), out);
+        }
+        out.write(']');
+    }
+
+    private static void writeMap(final Map<?, ?> map, final OutputStream out) throws IOException {
+        out.write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            writeString(String.valueOf(entry.getKey()), out);
+            out.write(':');
+            write(entry.getValue(), out);
+        }
+        out.write('}');
+    }
+
+    /**
+     * 写出带引号和转义的文字列
+     */
+    static void writeString(final String value, final OutputStream out) throws IOException {
+        out.write('"');
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                switch (c) {
+                case '\n':
+                    out.write('\\');
+                    out.write('n');
+                    break;
+                case '\r':
+                    out.write('\\');
+                    out.write('r');
+                    break;
+                case '\t':
+                    out.write('\\');
+                    out.write('t');
+                    break;
+                default:
+                    out.write('\\');
+                    out.write('u');
+                    out.write('0');
+                    out.write('0');
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+                }
+            } else if (c < 0x80) {
+                out.write(c);
+            } else {
+                i = writeChar(value, i, out);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * 不转义，按UTF-8写出文字列
+     */
+    static void writeUtf8(final String value, final OutputStream out) throws IOException {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                out.write(c);
+            } else {
+                i = writeChar(value, i, out);
+            }
+        }
+    }
+
+    static void writeAscii(final String value, final OutputStream out) throws IOException {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            out.write(value.charAt(i));
+        }
+    }
+
+    /**
+     * 按UTF-8写出非ASCII文字，代理对时写出4字节
+     *
+     * @return 最后处理的下标
+     */
+    private static int writeChar(final String value, final int index, final OutputStream out) throws IOException {
+        final char c = value.charAt(index);
+        if (c < 0x800) {
+            out.write(0xC0 | (c >> 6));
+            out.write(0x80 | (c & 0x3F));
+            return index;
+        }
+        if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            final int cp = Character.toCodePoint(c, value.charAt(index + 1));
+            out.write(0xF0 | (cp >> 18));
+            out.write(0x80 | ((cp >> 12) & 0x3F));
+            out.write(0x80 | ((cp >> 6) & 0x3F));
+            out.write(0x80 | (cp & 0x3F));
+            return index + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            // 不成对的代理文字
+            out.write('?');
+            return index;
+        }
+        out.write(0xE0 | (c >> 12));
+        out.write(0x80 | ((c >> 6) & 0x3F));
+        out.write(0x80 | (c & 0x3F));
+        return index;
+    }
+}
@@ -0,0 +1,132 @@
+package net.tiny.ws.rs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有容量上限的LRU缓存
+ * 按键的哈希值分成若干段，各段为访问顺序的 LinkedHashMap 并各自加锁，
+ * 超过容量时删除该段最久未使用的项。命中/未命中/删除的次数用 LongAdder 计数。
+ *
+ * @param <K> 键
+ * @param <V> 值
+ */
+final class LruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    /** 每段至少容纳的项数，容量小时不分段 */
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final Segment<K, V>[] segments;
+    private final int mask;
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    LruCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid cache capacity %1$d", capacity));
+        }
+        int count = 1;
+        while (count < MAX_SEGMENTS && count * 2 * MIN_SEGMENT_SIZE <= capacity) {
+            count *= 2;
+        }
+        this.capacity = capacity;
+        this.mask = count - 1;
+        this.segments = new Segment[count];
+        final int size = (capacity + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(size, evictions);
+        }
+    }
+
+    V get(final K key) {
+        final Segment<K, V> segment = segmentFor(key);
+        final V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (null == value) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    void put(final K key, final V value) {
+        final Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private Segment<K, V> segmentFor(final K key) {
+        final int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & mask];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%1$s - [%2$d/%3$d] hits:%4$d misses:%5$d evictions:%6$d",
+                getClass().getSimpleName(), size(), capacity, hits(), misses(), evictions());
+    }
+
+    @SuppressWarnings("serial")
+    static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private final int limit;
+        private final LongAdder evictions;
+
+        Segment(final int limit, final LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.limit = limit;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            if (size() > limit) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
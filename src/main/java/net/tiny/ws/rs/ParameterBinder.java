@@ -0,0 +1,336 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import javax.ws.rs.CookieParam;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.MatrixParam;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Cookie;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import net.tiny.config.Converter;
+
+/**
+ * 方法参数的绑定器
+ * 在MethodPattern生成时按参数解析一次注解(参数来源, 键, 类型, @DefaultValue, 变换函数)，
+ * 请求时只按顺序运行绑定器，不再调用反射和检查注解。
+ */
+final class ParameterBinder {
+
+    private static Logger LOGGER = Logger.getLogger(ParameterBinder.class.getName());
+
+    static final Converter CONVERTER = new Converter();
+
+    /** 参数来源 */
+    enum Source {
+        /** @PathParam @QueryParam @MatrixParam @FormParam */
+        ARGUMENT,
+        /** @HeaderParam */
+        HEADER,
+        /** @CookieParam */
+        COOKIE,
+        /** @Context 不支持 */
+        CONTEXT,
+        /** @Suspended AsyncResponse */
+        SUSPENDED,
+        /** 没有注解, 请求体 */
+        ENTITY
+    }
+
+    final Source source;
+    final String key;
+    final Class<?> type;
+    final Type genericType;
+    /** 原始类型时为对应的包装类型 */
+    private final Class<?> boxed;
+    /** 直接解析URI区域的解析器, 没有时为null */
+    final ValueParser parser;
+    /** URI解析的值所在的参数数组下标(同名参数时为最初的下标), 没有时为-1 */
+    int slot = -1;
+    /** @FormParam */
+    boolean form;
+    /** 预先变换的@DefaultValue */
+    private final Object defaultValue;
+    /** 不可共用的类型(List等)每次变换@DefaultValue */
+    private final String defaultText;
+    private final Function<String, Object> converter;
+
+    ParameterBinder(final Source source, final String key, final Class<?> type, final String defaultText) {
+        this(source, key, type, type, defaultText);
+    }
+
+    ParameterBinder(final Source source, final String key, final Class<?> type, final Type genericType, final String defaultText) {
+        this.source = source;
+        this.key = key;
+        this.type = type;
+        this.genericType = genericType;
+        this.boxed = boxed(type);
+        this.parser = ValueParser.of(type);
+        if (type == Cookie.class) {
+            this.converter = value -> new Cookie(key, value);
+        } else {
+            this.converter = converter(type, parser);
+        }
+        if (null != defaultText && isShareable(type)) {
+            this.defaultValue = converter.apply(defaultText);
+            this.defaultText = null;
+        } else {
+            this.defaultValue = null;
+            this.defaultText = defaultText;
+        }
+    }
+
+    /**
+     * 按方法的参数生成绑定器
+     *
+     * @param method
+     * @return
+     */
+    static ParameterBinder[] compile(final Method method) {
+        final Class<?>[] paramTypes = method.getParameterTypes();
+        final Type[] genericTypes = method.getGenericParameterTypes();
+        final Annotation[][] annotations = method.getParameterAnnotations();
+        final ParameterBinder[] binders = new ParameterBinder[paramTypes.length];
+        for (int i = 0; i < binders.length; i++) {
+            final Type genericType = genericTypes.length == paramTypes.length ? genericTypes[i] : paramTypes[i];
+            binders[i] = compile(annotations[i], paramTypes[i], genericType);
+            if (binders[i].source == Source.CONTEXT) {
+                LOGGER.warning(String.format("[REST] - Not support @Context parameter type. '%s'", method.getName()));
+            }
+        }
+        final String[] keys = keys(binders);
+        for (int i = 0; i < binders.length; i++) {
+            if (null != keys[i]) {
+                binders[i].slot = PatternSegment.slotOf(keys, keys[i]);
+            }
+        }
+        return binders;
+    }
+
+    /**
+     * 取得由URI解析的各参数的名字，其他参数为null
+     */
+    static String[] keys(final ParameterBinder[] binders) {
+        final String[] keys = new String[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            if (binders[i].source == Source.ARGUMENT) {
+                keys[i] = binders[i].key;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 取得由URI解析的各参数的解析器，其他参数为null
+     */
+    static ValueParser[] parsers(final ParameterBinder[] binders) {
+        final ValueParser[] parsers = new ValueParser[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            if (binders[i].source == Source.ARGUMENT) {
+                parsers[i] = binders[i].parser;
+            }
+        }
+        return parsers;
+    }
+
+    static ParameterBinder compile(final Annotation[] annotations, final Class<?> paramType) {
+        return compile(annotations, paramType, paramType);
+    }
+
+    static ParameterBinder compile(final Annotation[] annotations, final Class<?> paramType, final Type genericType) {
+        Source source = Source.ENTITY;
+        String key = null;
+        String defaultText = null;
+        boolean form = false;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof DefaultValue) {
+                defaultText = ((DefaultValue) annotation).value();
+                continue;
+            }
+            if (source != Source.ENTITY) {
+                continue;
+            }
+            if (annotation instanceof PathParam) {
+                source = Source.ARGUMENT;
+                key = ((PathParam) annotation).value();
+            } else if (annotation instanceof QueryParam) {
+                source = Source.ARGUMENT;
+                key = ((QueryParam) annotation).value();
+            } else if (annotation instanceof MatrixParam) {
+                source = Source.ARGUMENT;
+                key = ((MatrixParam) annotation).value();
+            } else if (annotation instanceof FormParam) {
+                source = Source.ARGUMENT;
+                key = ((FormParam) annotation).value();
+                form = true;
+            } else if (annotation instanceof HeaderParam) {
+                source = Source.HEADER;
+                key = ((HeaderParam) annotation).value();
+            } else if (annotation instanceof CookieParam) {
+                source = Source.COOKIE;
+                key = ((CookieParam) annotation).value();
+            } else if (annotation instanceof Context) {
+                source = Source.CONTEXT;
+            } else if (annotation instanceof Suspended) {
+                source = Source.SUSPENDED;
+            }
+        }
+        final ParameterBinder binder = new ParameterBinder(source, key, paramType, genericType, defaultText);
+        binder.form = form;
+        return binder;
+    }
+
+    /**
+     * 按绑定器的顺序取得方法的参数
+     */
+    static Object[] bind(final ParameterBinder[] binders, final HttpExchange he, final Map<String, Object> args) throws IOException {
+        final Object[] arguments = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            arguments[i] = binders[i].bind(he, args);
+        }
+        return arguments;
+    }
+
+    /**
+     * 把URI解析的参数数组直接变换成方法的参数
+     *
+     * @param binders
+     * @param he
+     * @param slots 按参数下标的URI解析值, 变换后的值写回原数组
+     * @return slots
+     */
+    static Object[] bindSlots(final ParameterBinder[] binders, final HttpExchange he, final Object[] slots) throws IOException {
+        for (int i = 0; i < binders.length; i++) {
+            final ParameterBinder binder = binders[i];
+            // 同名参数从最初的下标取得, 该下标已变换时按文字再变换
+            slots[i] = binder.bind(he, binder.slot >= 0 ? slots[binder.slot] : null);
+        }
+        return slots;
+    }
+
+    /**
+     * 取得参数值
+     *
+     * @param he
+     * @param args URI解析的参数
+     * @return
+     */
+    Object bind(final HttpExchange he, final Map<String, Object> args) throws IOException {
+        return bind(he, source == Source.ARGUMENT ? args.get(key) : null);
+    }
+
+    /**
+     * 取得参数值
+     *
+     * @param he
+     * @param value URI解析的值
+     * @return
+     */
+    Object bind(final HttpExchange he, final Object value) throws IOException {
+        switch (source) {
+        case ARGUMENT:
+            return bindArgument(value);
+        case HEADER:
+            return bindText(he.getRequestHeaders().getFirst(key));
+        case COOKIE:
+            return bindText(CookieIndex.of(he).get(key));
+        case ENTITY:
+            return null == he ? null : EntityReader.read(he, type, genericType);
+        case SUSPENDED:
+            return new RestAsyncResponse();
+        default:
+            return null;
+        }
+    }
+
+    private Object bindArgument(Object value) {
+        if (value != null && value.getClass().isArray() && !type.isArray()) {
+            value = Array.get(value, 0);
+        }
+        if (value == null) {
+            return defaultValue();
+        }
+        if (!boxed.isInstance(value)) {
+            return converter.apply(value.toString());
+        }
+        return value;
+    }
+
+    private Object bindText(final String value) {
+        if (value == null) {
+            return defaultValue();
+        }
+        return converter.apply(value);
+    }
+
+    private Object defaultValue() {
+        if (null != defaultText) {
+            return converter.apply(defaultText);
+        }
+        return defaultValue;
+    }
+
+    static Function<String, Object> converter(final Class<?> type) {
+        return converter(type, ValueParser.of(type));
+    }
+
+    private static Function<String, Object> converter(final Class<?> type, final ValueParser parser) {
+        if (type == String.class || type == Object.class || type == CharSequence.class) {
+            return value -> value;
+        }
+        if (null != parser) {
+            // 不能直接解析的形式按原来的Converter变换
+            return value -> {
+                final Object parsed = parser.parse(value, 0, value.length());
+                return null != parsed ? parsed : CONVERTER.convert(value, type);
+            };
+        }
+        return value -> CONVERTER.convert(value, type);
+    }
+
+    private static Class<?> boxed(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static boolean isShareable(final Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || type == String.class || type == Boolean.class
+                || type == Character.class || Number.class.isAssignableFrom(type) && type.getName().startsWith("java.lang.");
+    }
+
+    /**
+     * Search and retreive a cookie from a HTTP request context
+     * @param key, The cookie name to search for
+     * @param pReturnJustValue, return just the cookie value or the name + value i.e. "foo=bar;fie;etc";
+     * @return
+     */
+    static String getCookie(HttpExchange he, String key, boolean justValue) {
+        final String value = CookieIndex.of(he).get(key);
+        if (null == value || justValue) {
+            return value;
+        }
+        return key + "=" + value;
+    }
+
+    @Override
+    public String toString() {
+        return source + (null == key ? "" : "(" + key + ")") + " " + type.getSimpleName();
+    }
+}
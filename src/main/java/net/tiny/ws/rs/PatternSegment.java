@@ -0,0 +1,399 @@
+package net.tiny.ws.rs;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * URI pattern的一节，在MethodPattern生成时预先编译，请求时只运行匹配器
+ * <ul>
+ * <li>"name" 定型文字</li>
+ * <li>"{id}" 变量</li>
+ * <li>"{id : \\d+}" 带正则的变量</li>
+ * <li>"name;{a};{b=[a-z]*}" Matrix参数组</li>
+ * </ul>
+ * "?{a}&amp;{b=\\d+}" Query参数组由 {@link Group} 表示。
+ * 匹配器直接比较URI的[start, end)区域，不匹配时不生成任何对象。
+ * 变量在编译时对应到方法参数的下标(slot)，匹配时直接写入参数数组；
+ * 没有对应参数且不需要Map时不解码。参数为int, UUID等类型时由 {@link ValueParser} 直接解析URI区域。
+ */
+abstract class PatternSegment {
+
+    static final String ENCODING = "UTF-8";
+
+    /**
+     * 判断URI的一节[start, end)是否匹配，匹配时把参数写入参数数组或Map里
+     *
+     * @param cursor
+     * @param start
+     * @param end
+     * @param slots 按方法参数下标的参数数组, 可为null
+     * @param args 按名字的参数Map, 可为null
+     * @return
+     * @throws UnsupportedEncodingException
+     */
+    abstract boolean match(final UriCursor cursor, final int start, final int end, final Object[] slots,
+            final Map<String, Object> args) throws UnsupportedEncodingException;
+
+    /**
+     * 编译pattern的一节(不含Query参数组)
+     *
+     * @param segment
+     * @param keys 各方法参数的名字(没有时为null)
+     * @param parsers 各方法参数的解析器(没有时为null)
+     * @return
+     */
+    static PatternSegment compile(final String segment, final String[] keys, final ValueParser[] parsers) {
+        final int pos = indexOfGroup(segment, ';');
+        if (pos >= 0) {
+            return new MatrixGroup(segment.substring(0, pos), Group.compile(segment.substring(pos + 1), ';', keys, parsers));
+        }
+        if (!segment.startsWith(PathPattern.PREFIX)) {
+            return new Literal(segment);
+        }
+        final String var = segment.substring(1, segment.lastIndexOf(PathPattern.POSTFIX));
+        final int delim = var.indexOf(':');
+        if (delim > 0) {
+            final String name = var.substring(0, delim).trim();
+            final int slot = slotOf(keys, name);
+            return new RegexCapture(name, slot, parserOf(parsers, slot), Constraint.compile(var.substring(delim + 1).trim()));
+        }
+        final String name = var.trim();
+        final int slot = slotOf(keys, name);
+        return new Capture(name, slot, parserOf(parsers, slot));
+    }
+
+    /**
+     * 取得名字对应的方法参数下标，没有时为-1
+     */
+    static int slotOf(final String[] keys, final String name) {
+        if (null != keys) {
+            for (int i = 0; i < keys.length; i++) {
+                if (name.equals(keys[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    static ValueParser parserOf(final ValueParser[] parsers, final int slot) {
+        return (null != parsers && slot >= 0) ? parsers[slot] : null;
+    }
+
+    /**
+     * 把URI区域的值写入参数数组和Map
+     * 只写入参数数组且不需要解码时，由解析器直接解析区域，不能解析时写入文字列
+     */
+    static void put(final Object[] slots, final int slot, final ValueParser parser, final Map<String, Object> args,
+            final String name, final String uri, final int start, final int end) throws UnsupportedEncodingException {
+        final boolean indexed = null != slots && slot >= 0;
+        if (!indexed && null == args) {
+            return;
+        }
+        if (indexed && null == args && null != parser && !isEncoded(uri, start, end)) {
+            final Object parsed = parser.parse(uri, start, end);
+            if (null != parsed) {
+                slots[slot] = parsed;
+                return;
+            }
+        }
+        final String value = decode(uri, start, end);
+        if (indexed) {
+            slots[slot] = value;
+        }
+        if (null != args) {
+            args.put(name, value);
+        }
+    }
+
+    /**
+     * 取得'{...}'以外的分隔符位置
+     */
+    static int indexOfGroup(final String segment, final char delim) {
+        int depth = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            final char c = segment.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == delim && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解码URI区域，不含'%'和'+'时不经过URLDecoder
+     */
+    static String decode(final String uri, final int start, final int end) throws UnsupportedEncodingException {
+        final String value = uri.substring(start, end);
+        if (isEncoded(uri, start, end)) {
+            return URLDecoder.decode(value, ENCODING);
+        }
+        return value;
+    }
+
+    static boolean isEncoded(final String uri, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            final char c = uri.charAt(i);
+            if (c == '%' || c == '+') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 定型文字 */
+    static final class Literal extends PatternSegment {
+        final String text;
+
+        Literal(final String text) {
+            this.text = text;
+        }
+
+        @Override
+        boolean match(final UriCursor cursor, final int start, final int end, final Object[] slots,
+                final Map<String, Object> args) {
+            return UriCursor.regionMatches(cursor.uri(), start, end, text, false);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /** 变量 "{id}" */
+    static final class Capture extends PatternSegment {
+        final String name;
+        final int slot;
+        final ValueParser parser;
+
+        Capture(final String name, final int slot, final ValueParser parser) {
+            this.name = name;
+            this.slot = slot;
+            this.parser = parser;
+        }
+
+        @Override
+        boolean match(final UriCursor cursor, final int start, final int end, final Object[] slots,
+                final Map<String, Object> args) throws UnsupportedEncodingException {
+            put(slots, slot, parser, args, name, cursor.uri(), start, end);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "{" + name + "}";
+        }
+    }
+
+    /** 带正则的变量 "{id : \\d+}" */
+    static final class RegexCapture extends PatternSegment {
+        final String name;
+        final int slot;
+        final ValueParser parser;
+        final Constraint regex;
+
+        RegexCapture(final String name, final int slot, final ValueParser parser, final Constraint regex) {
+            this.name = name;
+            this.slot = slot;
+            this.parser = parser;
+            this.regex = regex;
+        }
+
+        @Override
+        boolean match(final UriCursor cursor, final int start, final int end, final Object[] slots,
+                final Map<String, Object> args) throws UnsupportedEncodingException {
+            if (!regex.matches(cursor.uri(), start, end)) {
+                return false;
+            }
+            put(slots, slot, parser, args, name, cursor.uri(), start, end);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "{" + name + " : " + regex.pattern() + "}";
+        }
+    }
+
+    /** Matrix参数组 "name;{a};{b=[a-z]*}" */
+    static final class MatrixGroup extends PatternSegment {
+        final String text;
+        final Group group;
+
+        MatrixGroup(final String text, final Group group) {
+            this.text = text;
+            this.group = group;
+        }
+
+        @Override
+        boolean match(final UriCursor cursor, final int start, final int end, final Object[] slots,
+                final Map<String, Object> args) throws UnsupportedEncodingException {
+            final String uri = cursor.uri();
+            final int pos = UriCursor.indexOf(uri, ';', start, end);
+            if (pos < 0) {
+                return UriCursor.regionMatches(uri, start, end, text, false);
+            }
+            if (!UriCursor.regionMatches(uri, start, pos, text, false)) {
+                return false;
+            }
+            return group.match(cursor, pos + 1, end, slots, args);
+        }
+
+        @Override
+        public String toString() {
+            return text + ";" + group;
+        }
+    }
+
+    /**
+     * 参数组 "{a}&amp;{b=\\d+}" 或是 "{a};{b=\\d+}"
+     * 按名字匹配"name=value"，不在组内的名字视为不匹配
+     */
+    static final class Group {
+        final char delim;
+        final String[] names;
+        final Constraint[] regexes;
+        final int[] slots;
+        final ValueParser[] parsers;
+
+        Group(final char delim, final String[] names, final Constraint[] regexes, final int[] slots,
+                final ValueParser[] parsers) {
+            this.delim = delim;
+            this.names = names;
+            this.regexes = regexes;
+            this.slots = slots;
+            this.parsers = parsers;
+        }
+
+        /**
+         * 编译参数组，"?"也视为分隔符 (see PathPattern#generatorPattern)
+         */
+        static Group compile(final String text, final char delim, final String[] keys, final ValueParser[] parsers) {
+            final List<String> names = new ArrayList<>();
+            final List<Constraint> regexes = new ArrayList<>();
+            int start = 0;
+            while (start <= text.length()) {
+                int end = start;
+                int depth = 0;
+                while (end < text.length()) {
+                    final char c = text.charAt(end);
+                    if (c == '{') {
+                        depth++;
+                    } else if (c == '}') {
+                        depth--;
+                    } else if (depth == 0 && (c == delim || c == '?')) {
+                        break;
+                    }
+                    end++;
+                }
+                final String item = text.substring(start, end).trim();
+                if (item.startsWith(PathPattern.PREFIX) && item.endsWith(PathPattern.POSTFIX)) {
+                    final String var = item.substring(1, item.length() - 1);
+                    final int pos = var.indexOf('=');
+                    if (pos > 0) {
+                        names.add(var.substring(0, pos).trim());
+                        regexes.add(Constraint.compile(var.substring(pos + 1).trim()));
+                    } else {
+                        names.add(var.trim());
+                        regexes.add(null);
+                    }
+                }
+                start = end + 1;
+            }
+            final int[] slots = new int[names.size()];
+            final ValueParser[] slotParsers = new ValueParser[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = slotOf(keys, names.get(i));
+                slotParsers[i] = parserOf(parsers, slots[i]);
+            }
+            return new Group(delim, names.toArray(new String[names.size()]), regexes.toArray(new Constraint[regexes.size()]),
+                    slots, slotParsers);
+        }
+
+        /**
+         * 由方法参数的名字生成不带正则的参数组
+         */
+        static Group of(final char delim, final String[] keys, final ValueParser[] parsers) {
+            final List<String> names = new ArrayList<>();
+            final List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (null != keys[i] && !names.contains(keys[i])) {
+                    names.add(keys[i]);
+                    indexes.add(i);
+                }
+            }
+            final int[] slots = new int[indexes.size()];
+            final ValueParser[] slotParsers = new ValueParser[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = indexes.get(i);
+                slotParsers[i] = parserOf(parsers, slots[i]);
+            }
+            return new Group(delim, names.toArray(new String[names.size()]), new Constraint[names.size()], slots, slotParsers);
+        }
+
+        int indexOf(final String uri, final int start, final int end) {
+            for (int i = 0; i < names.length; i++) {
+                if (UriCursor.regionMatches(uri, start, end, names[i], true)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 判断URI区域[from, to)的"name=value"组是否匹配
+         */
+        boolean match(final UriCursor cursor, final int from, final int to, final Object[] slots,
+                final Map<String, Object> args) throws UnsupportedEncodingException {
+            final String uri = cursor.uri();
+            int start = from;
+            while (start < to) {
+                int end = UriCursor.indexOf(uri, delim, start, to);
+                if (end < 0) {
+                    end = to;
+                }
+                if (end > start) {
+                    int pos = UriCursor.indexOf(uri, '=', start, end);
+                    final int valueStart = pos < 0 ? end : pos + 1;
+                    if (pos < 0) {
+                        pos = end;
+                    }
+                    final int index = indexOf(uri, start, pos);
+                    if (index < 0) {
+                        return false;
+                    }
+                    if (null != regexes[index] && !regexes[index].matches(uri, valueStart, end)) {
+                        return false;
+                    }
+                    put(slots, this.slots[index], parsers[index], args, names[index], uri, valueStart, end);
+                }
+                start = end + 1;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    sb.append(delim);
+                }
+                sb.append('{').append(names[i]);
+                if (null != regexes[i]) {
+                    sb.append('=').append(regexes[i].pattern());
+                }
+                sb.append('}');
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package net.tiny.ws.rs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.BaseStream;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * {@link Cached} 资源方法的响应缓存
+ * 键为变换后的参数数组，值为JSON编码后的响应体和gzip, deflate压缩后的内容以及各自的ETag。
+ * 有容量上限的分段 {@link LruCache} 保存，过期的项在下次写入时替换。
+ * 参数中含有请求体、AsyncResponse等非值类型时不缓存。
+ */
+final class ResponseCache {
+
+    private final LruCache<Key, Entry> entries;
+    /** 有效期(纳秒), 0为不过期 */
+    private final long ttl;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ResponseCache(final long ttl, final int maxEntries) {
+        if (ttl < 0L) {
+            throw new IllegalArgumentException(String.format("Invalid cache ttl %1$d", ttl));
+        }
+        this.entries = new LruCache<>(maxEntries);
+        this.ttl = ttl * 1000000L;
+    }
+
+    /**
+     * @return 有@Cached注解的GET方法的缓存, 其他时为null
+     */
+    static ResponseCache of(final Method method) {
+        final Cached cached = method.getAnnotation(Cached.class);
+        if (null == cached || null == method.getAnnotation(GET.class)) {
+            return null;
+        }
+        return new ResponseCache(cached.ttl(), cached.maxEntries());
+    }
+
+    /**
+     * @return 参数数组的键, 含有不能作为键的参数时为null
+     */
+    Key key(final Object[] params) {
+        for (Object param : params) {
+            if (!isValue(param)) {
+                return null;
+            }
+        }
+        return new Key(params);
+    }
+
+    /**
+     * @return 有效的缓存, 没有或已过期时为null
+     */
+    Entry get(final Key key) {
+        final Entry entry = entries.get(key);
+        if (null == entry || (ttl > 0L && System.nanoTime() - entry.created > ttl)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * 编码资源方法的结果后缓存
+     *
+     * @param key
+     * @param result 资源方法的结果
+     * @param compressMinSize 生成压缩内容的最小大小, 负数时不压缩
+     * @param compressLevel 压缩级别
+     * @return 缓存的项
+     */
+    Entry put(final Key key, final Object result, final int compressMinSize, final int compressLevel) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try {
+            JsonWriter.write(result, out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        final byte[] body = out.toByteArray();
+        byte[] gzip = null;
+        byte[] deflate = null;
+        if (compressMinSize >= 0 && body.length > 0 && body.length >= compressMinSize) {
+            gzip = Compression.compress(body, 0, body.length, Compression.GZIP, compressLevel);
+            deflate = Compression.compress(body, 0, body.length, Compression.DEFLATE, compressLevel);
+        }
+        final Entry entry = new Entry(body, gzip, deflate);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * 是否为按JSON写出、可以缓存的结果
+     */
+    static boolean isCacheable(final Object result) {
+        return null != result && !(result instanceof Response || result instanceof GenericEntity
+                || result instanceof StreamingOutput || result instanceof CompletionStage
+                || result instanceof Iterator || result instanceof BaseStream)
+                && !EntityWriter.isPassThrough(result) && !FileTransfer.isFile(result);
+    }
+
+    /**
+     * 是否为可以作为键的值 (文字列, 数值, 列举, 以及它们的集合和数组)
+     */
+    static boolean isValue(final Object param) {
+        if (null == param || param instanceof String || param instanceof Number || param instanceof Boolean
+                || param instanceof Character || param instanceof Enum || param instanceof Date
+                || param instanceof UUID || param instanceof Cookie) {
+            return true;
+        }
+        if (param instanceof Collection) {
+            for (Object element : (Collection<?>) param) {
+                if (!isValue(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (param.getClass().isArray()) {
+            if (param.getClass().getComponentType().isPrimitive()) {
+                return true;
+            }
+            final int length = Array.getLength(param);
+            for (int i = 0; i < length; i++) {
+                if (!isValue(Array.get(param, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return entries.evictions();
+    }
+
+    /**
+     * @return 命中率 0.0 - 1.0
+     */
+    double hitRate() {
+        final long hit = hits.sum();
+        final long total = hit + misses.sum();
+        return total == 0L ? 0.0d : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%1$s - [%2$d/%3$d] hits:%4$d misses:%5$d evictions:%6$d hitRate:%7$.2f",
+                getClass().getSimpleName(), size(), entries.capacity(), hits(), misses(), evictions(), hitRate());
+    }
+
+    /** 缓存的键 参数数组 */
+    static final class Key {
+        private final Object[] params;
+        private final int hash;
+
+        Key(final Object[] params) {
+            this.params = params.clone();
+            this.hash = Arrays.deepHashCode(this.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash && Arrays.deepEquals(params, other.params);
+        }
+    }
+
+    /** 缓存的响应 */
+    static final class Entry {
+        final byte[] body;
+        /** gzip, deflate压缩后的响应体, 小于最小大小时为null */
+        final byte[] gzip;
+        final byte[] deflate;
+        final String etag;
+        final String gzipEtag;
+        final String deflateEtag;
+        final long created = System.nanoTime();
+
+        Entry(final byte[] body, final byte[] gzip, final byte[] deflate) {
+            this.body = body;
+            this.gzip = gzip;
+            this.deflate = deflate;
+            this.etag = EntityTags.of(body, 0, body.length, null);
+            this.gzipEtag = null == gzip ? null : EntityTags.of(body, 0, body.length, Compression.GZIP);
+            this.deflateEtag = null == deflate ? null : EntityTags.of(body, 0, body.length, Compression.DEFLATE);
+        }
+
+        /**
+         * 是否有压缩的内容 (响应需要"Vary: Accept-Encoding")
+         */
+        boolean compressed() {
+            return null != gzip;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * 响应体的输出流
+ * 先写入缓冲区，关闭时全部内容在缓冲区内则按固定长度(Content-Length)送出；
+ * 超过缓冲区时送出chunked响应头，之后按缓冲区大小分段写出。
+ * 缓冲区从共用的池里借出，关闭或{@link #release()}时归还。
+ * 指定压缩编码时，缓冲区内达到最小大小的内容压缩后按固定长度送出，超过缓冲区的内容按chunked边压缩边送出。
+ * 指定{@link #entityTag()}时，全部内容在缓冲区内则由缓冲区生成ETag，与"If-None-Match"一致时送出304。
+ */
+final class ResponseOutputStream extends OutputStream {
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(64);
+
+    private final HttpExchange exchange;
+    private final int status;
+    private byte[] buffer;
+    private int count;
+    /** 送出响应头后的响应体 */
+    private OutputStream body;
+    private boolean closed;
+    private boolean streaming;
+    /** 压缩编码, 不压缩时为null */
+    private String encoding;
+    private int compressMinSize;
+    private int compressLevel;
+    /** 是否生成ETag */
+    private boolean entityTag;
+
+    ResponseOutputStream(final HttpExchange exchange, final int status) {
+        this(exchange, status, DEFAULT_BUFFER_SIZE);
+    }
+
+    ResponseOutputStream(final HttpExchange exchange, final int status, final int bufferSize) {
+        this.exchange = exchange;
+        this.status = status;
+        this.buffer = borrow(bufferSize);
+    }
+
+    /**
+     * 设置压缩编码，需在写入前调用
+     *
+     * @param encoding "gzip", "deflate", 不压缩时为null
+     * @param minSize 小于该大小的响应体不压缩
+     * @param level 压缩级别
+     * @return
+     */
+    ResponseOutputStream compress(final String encoding, final int minSize, final int level) {
+        this.encoding = encoding;
+        this.compressMinSize = minSize;
+        this.compressLevel = level;
+        return this;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        if (len > buffer.length - count) {
+            flushBuffer();
+            if (len >= buffer.length) {
+                body.write(b, off, len);
+                return;
+            }
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * 送出响应头前不送出，保留按固定长度送出的可能
+     * {@link #streaming()} 之后按chunked送出响应头和缓冲区的内容
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!closed && (null != body || streaming)) {
+            flushBuffer();
+            body.flush();
+        }
+    }
+
+    /**
+     * 送出剩余的内容并结束响应
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (null == body) {
+                final boolean compress = null != encoding && count > 0 && count >= compressMinSize;
+                if (entityTag && count > 0
+                        && EntityTags.notModified(exchange, EntityTags.of(buffer, 0, count, compress ? encoding : null))) {
+                    body = exchange.getResponseBody();
+                    count = 0;
+                } else if (compress) {
+                    final byte[] compressed = Compression.compress(buffer, 0, count, encoding, compressLevel);
+                    contentEncoding();
+                    commit(compressed.length);
+                    body.write(compressed);
+                    count = 0;
+                } else {
+                    commit(count == 0 ? -1 : count);
+                }
+            }
+            if (count > 0) {
+                body.write(buffer, 0, count);
+                count = 0;
+            }
+            body.close();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 长度已知且超过缓冲区的响应体不按chunked, 立即按固定长度送出响应头
+     * 压缩时或长度不明时不做任何处理
+     *
+     * @param length 响应体的字节数, 不明时为-1
+     * @return
+     */
+    ResponseOutputStream contentLength(final long length) throws IOException {
+        if (null == body && null == encoding && count == 0 && length > buffer.length) {
+            commit(length);
+        }
+        return this;
+    }
+
+    /**
+     * 响应体在缓冲区内结束时生成ETag, 需在写入前调用
+     * 已有ETag响应头时不生成
+     */
+    ResponseOutputStream entityTag() {
+        this.entityTag = null == exchange.getResponseHeaders().getFirst(EntityTags.ETAG);
+        return this;
+    }
+
+    /**
+     * 逐步写出的响应(Stream, StreamingOutput等)用, 调用 {@link #flush()} 时立即送出
+     */
+    ResponseOutputStream streaming() {
+        this.streaming = true;
+        return this;
+    }
+
+    /**
+     * 不送出缓冲区的内容，归还缓冲区
+     * 按chunked压缩送出中的响应同时归还Deflater, 之后的写入抛出IOException
+     */
+    void release() {
+        closed = true;
+        if (body instanceof Compression.CompressionOutputStream) {
+            ((Compression.CompressionOutputStream) body).abort();
+        }
+        if (null != buffer) {
+            if (buffer.length == DEFAULT_BUFFER_SIZE) {
+                BUFFERS.offer(buffer);
+            }
+            buffer = null;
+        }
+    }
+
+    /**
+     * 是否已送出响应头
+     */
+    boolean isCommitted() {
+        return null != body;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (null == body) {
+            // chunked
+            if (null != encoding) {
+                contentEncoding();
+                commit(0);
+                body = new Compression.CompressionOutputStream(body, encoding, compressLevel);
+            } else {
+                commit(0);
+            }
+        }
+        if (count > 0) {
+            body.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void contentEncoding() {
+        exchange.getResponseHeaders().set(Compression.CONTENT_ENCODING, encoding);
+        exchange.getResponseHeaders().add("Vary", Compression.ACCEPT_ENCODING);
+    }
+
+    private void commit(final long length) throws IOException {
+        exchange.sendResponseHeaders(status, length);
+        body = exchange.getResponseBody();
+    }
+
+    private static byte[] borrow(final int size) {
+        if (size == DEFAULT_BUFFER_SIZE) {
+            final byte[] buffer = BUFFERS.poll();
+            if (null != buffer) {
+                return buffer;
+            }
+        }
+        return new byte[size];
+    }
+}
@@ -0,0 +1,300 @@
+package net.tiny.ws.rs;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.TimeoutHandler;
+
+/**
+ * 异步处理的响应
+ * 作为 @Suspended AsyncResponse 参数传给资源方法，
+ * 或者包装资源方法返回的 CompletionStage / CompletableFuture。
+ * 结果在 {@link #future()} 完成时写入，超时后按 TimeoutException 结束(503)。
+ */
+final class RestAsyncResponse implements AsyncResponse {
+
+    private static final Logger LOGGER = Logger.getLogger(RestAsyncResponse.class.getName());
+
+    /** 超时用的共用计时器, 只在第一次使用时生成 */
+    private static final class Timer {
+        static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "rest-async-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        static {
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+    private final List<CompletionCallback> callbacks = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+    private volatile String retryAfter;
+    private volatile TimeoutHandler timeoutHandler;
+    /** 毫秒, 负数时使用默认值 */
+    private long timeout = -1L;
+    private boolean started;
+    private ScheduledFuture<?> timer;
+
+    /**
+     * 取得资源方法的异步结果
+     *
+     * @param result 资源方法的返回值
+     * @param params 资源方法的参数
+     * @return 同步处理时为null
+     */
+    static RestAsyncResponse of(final Object result, final Object[] params) {
+        if (result instanceof CompletionStage) {
+            final RestAsyncResponse async = new RestAsyncResponse();
+            ((CompletionStage<?>) result).whenComplete((value, error) -> {
+                if (null != error) {
+                    async.resume(error);
+                } else {
+                    async.resume(value);
+                }
+            });
+            return async;
+        }
+        for (Object param : params) {
+            if (param instanceof RestAsyncResponse) {
+                return (RestAsyncResponse) param;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 去掉 CompletionException 的包装
+     */
+    static Throwable unwrap(final Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && null != cause.getCause()) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    CompletableFuture<Object> future() {
+        return future;
+    }
+
+    /**
+     * @return cancel(int), cancel(Date) 指定的 Retry-After 值
+     */
+    String getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * 设置结束时的处理, 处理后通知 CompletionCallback
+     *
+     * @param action 参数为结果和异常(成功时为null)
+     * @return
+     */
+    CompletableFuture<Object> then(final BiConsumer<Object, Throwable> action) {
+        return future.whenComplete((value, error) -> {
+            stopTimer();
+            try {
+                action.accept(value, error);
+            } finally {
+                for (CompletionCallback callback : callbacks) {
+                    try {
+                        callback.onComplete(null == error ? null : unwrap(error));
+                    } catch (RuntimeException ex) {
+                        LOGGER.log(Level.WARNING, "[REST] - Completion callback error", ex);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 开始计时
+     *
+     * @param defaultTimeout 没有调用 setTimeout 时的超时毫秒数, 0以下时不超时
+     */
+    synchronized void start(final long defaultTimeout) {
+        started = true;
+        if (timeout < 0L) {
+            timeout = defaultTimeout;
+        }
+        schedule();
+    }
+
+    private synchronized void schedule() {
+        if (null != timer) {
+            timer.cancel(false);
+            timer = null;
+        }
+        if (timeout > 0L && !future.isDone()) {
+            timer = Timer.EXECUTOR.schedule(this::expire, timeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void stopTimer() {
+        if (null != timer) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+
+    private void expire() {
+        final ScheduledFuture<?> current;
+        synchronized (this) {
+            current = timer;
+        }
+        final TimeoutHandler handler = timeoutHandler;
+        if (null != handler) {
+            try {
+                handler.handleTimeout(this);
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+                return;
+            }
+            synchronized (this) {
+                if (timer != current) {
+                    // 在TimeoutHandler中延长了时间
+                    return;
+                }
+            }
+        }
+        future.completeExceptionally(new TimeoutException(String.format("Asynchronous response timed out after %dms", timeout)));
+    }
+
+    @Override
+    public boolean resume(final Object response) {
+        return future.complete(response);
+    }
+
+    @Override
+    public boolean resume(final Throwable response) {
+        return future.completeExceptionally(unwrap(response));
+    }
+
+    @Override
+    public boolean cancel() {
+        return cancel((String) null);
+    }
+
+    @Override
+    public boolean cancel(final int retryAfter) {
+        return cancel(String.valueOf(retryAfter));
+    }
+
+    @Override
+    public boolean cancel(final Date retryAfter) {
+        return cancel(null == retryAfter ? null
+                : DateTimeFormatter.RFC_1123_DATE_TIME.format(retryAfter.toInstant().atOffset(ZoneOffset.UTC)));
+    }
+
+    private boolean cancel(final String retry) {
+        if (cancelled) {
+            return true;
+        }
+        if (future.isDone()) {
+            return false;
+        }
+        this.retryAfter = retry;
+        if (future.completeExceptionally(new CancellationException())) {
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return !future.isDone();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    @Override
+    public boolean setTimeout(final long time, final TimeUnit unit) {
+        synchronized (this) {
+            if (future.isDone()) {
+                return false;
+            }
+            timeout = time <= 0L ? 0L : unit.toMillis(time);
+            if (started) {
+                schedule();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void setTimeoutHandler(final TimeoutHandler handler) {
+        this.timeoutHandler = handler;
+    }
+
+    @Override
+    public Collection<Class<?>> register(final Class<?> callback) {
+        try {
+            return register(callback.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalArgumentException(String.format("Can not create callback '%s'", callback.getName()), ex);
+        }
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(final Class<?> callback, final Class<?>... callbacks) {
+        final Map<Class<?>, Collection<Class<?>>> registered = new HashMap<>();
+        registered.put(callback, register(callback));
+        for (Class<?> c : callbacks) {
+            registered.put(c, register(c));
+        }
+        return registered;
+    }
+
+    /**
+     * 只支持 CompletionCallback, ConnectionCallback 不通知
+     */
+    @Override
+    public Collection<Class<?>> register(final Object callback) {
+        if (callback instanceof CompletionCallback) {
+            callbacks.add((CompletionCallback) callback);
+            return Collections.<Class<?>>singletonList(CompletionCallback.class);
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(final Object callback, final Object... callbacks) {
+        final Map<Class<?>, Collection<Class<?>>> registered = new HashMap<>();
+        registered.put(callback.getClass(), register(callback));
+        for (Object c : callbacks) {
+            registered.put(c.getClass(), register(c));
+        }
+        return registered;
+    }
+}
@@ -0,0 +1,546 @@
+package net.tiny.ws.rs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Variant;
+
+/**
+ * {@link RestRuntimeDelegate} 生成的服务器端Response
+ * 响应头按设置的对象保存，送出时由 {@link RestRuntimeDelegate#toHeaderString(Object)} 变换成文字列。
+ */
+final class RestResponse extends Response {
+
+    private static final RestRuntimeDelegate.LinkDelegate LINK = new RestRuntimeDelegate.LinkDelegate();
+
+    private final int status;
+    private final String reasonPhrase;
+    private final Object entity;
+    private final Annotation[] annotations;
+    private final MultivaluedMap<String, Object> headers;
+    private boolean closed;
+
+    RestResponse(final int status, final String reasonPhrase, final Object entity, final Annotation[] annotations,
+            final MultivaluedMap<String, Object> headers) {
+        this.status = status;
+        this.reasonPhrase = reasonPhrase;
+        this.entity = entity;
+        this.annotations = annotations;
+        this.headers = headers;
+    }
+
+    Annotation[] getAnnotations() {
+        return annotations;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public StatusType getStatusInfo() {
+        final Status known = Status.fromStatusCode(status);
+        if (null != known && null == reasonPhrase) {
+            return known;
+        }
+        final String phrase = null != reasonPhrase ? reasonPhrase : "";
+        return new StatusType() {
+            @Override
+            public int getStatusCode() {
+                return status;
+            }
+
+            @Override
+            public Status.Family getFamily() {
+                return Status.Family.familyOf(status);
+            }
+
+            @Override
+            public String getReasonPhrase() {
+                return phrase;
+            }
+        };
+    }
+
+    @Override
+    public Object getEntity() {
+        checkClosed();
+        return entity;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T readEntity(final Class<T> entityType) {
+        checkClosed();
+        if (null == entity || entityType.isInstance(entity)) {
+            return (T) entity;
+        }
+        throw new IllegalStateException(String.format("Can not read '%s' as '%s'",
+                entity.getClass().getName(), entityType.getName()));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T readEntity(final GenericType<T> entityType) {
+        return (T) readEntity(entityType.getRawType());
+    }
+
+    @Override
+    public <T> T readEntity(final Class<T> entityType, final Annotation[] annotations) {
+        return readEntity(entityType);
+    }
+
+    @Override
+    public <T> T readEntity(final GenericType<T> entityType, final Annotation[] annotations) {
+        return readEntity(entityType);
+    }
+
+    @Override
+    public boolean hasEntity() {
+        checkClosed();
+        return null != entity;
+    }
+
+    @Override
+    public boolean bufferEntity() {
+        checkClosed();
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (entity instanceof Closeable) {
+            try {
+                ((Closeable) entity).close();
+            } catch (IOException ex) {
+                // 忽略
+            }
+        }
+    }
+
+    private void checkClosed() {
+        if (closed) {
+            throw new IllegalStateException("Response is closed");
+        }
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        final Object value = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (null == value || value instanceof MediaType) {
+            return (MediaType) value;
+        }
+        return MediaType.valueOf(value.toString());
+    }
+
+    @Override
+    public Locale getLanguage() {
+        final Object value = headers.getFirst(HttpHeaders.CONTENT_LANGUAGE);
+        if (null == value || value instanceof Locale) {
+            return (Locale) value;
+        }
+        return Locale.forLanguageTag(value.toString());
+    }
+
+    @Override
+    public int getLength() {
+        final Object value = headers.getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (null == value) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    @Override
+    public Set<String> getAllowedMethods() {
+        final List<Object> values = headers.get(HttpHeaders.ALLOW);
+        if (null == values) {
+            return Collections.emptySet();
+        }
+        final Set<String> methods = new LinkedHashSet<>();
+        for (Object value : values) {
+            for (String method : value.toString().split(",")) {
+                if (!method.trim().isEmpty()) {
+                    methods.add(method.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        return methods;
+    }
+
+    @Override
+    public Map<String, NewCookie> getCookies() {
+        final List<Object> values = headers.get(HttpHeaders.SET_COOKIE);
+        if (null == values) {
+            return Collections.emptyMap();
+        }
+        final Map<String, NewCookie> cookies = new HashMap<>();
+        for (Object value : values) {
+            final NewCookie cookie = value instanceof NewCookie ? (NewCookie) value : NewCookie.valueOf(value.toString());
+            cookies.put(cookie.getName(), cookie);
+        }
+        return cookies;
+    }
+
+    @Override
+    public EntityTag getEntityTag() {
+        final Object value = headers.getFirst(HttpHeaders.ETAG);
+        if (null == value || value instanceof EntityTag) {
+            return (EntityTag) value;
+        }
+        return EntityTag.valueOf(value.toString());
+    }
+
+    @Override
+    public Date getDate() {
+        return date(HttpHeaders.DATE);
+    }
+
+    @Override
+    public Date getLastModified() {
+        return date(HttpHeaders.LAST_MODIFIED);
+    }
+
+    private Date date(final String name) {
+        final Object value = headers.getFirst(name);
+        if (null == value || value instanceof Date) {
+            return (Date) value;
+        }
+        return RestRuntimeDelegate.parseDate(value.toString());
+    }
+
+    @Override
+    public URI getLocation() {
+        final Object value = headers.getFirst(HttpHeaders.LOCATION);
+        if (null == value || value instanceof URI) {
+            return (URI) value;
+        }
+        return URI.create(value.toString());
+    }
+
+    @Override
+    public Set<Link> getLinks() {
+        final List<Object> values = headers.get(HttpHeaders.LINK);
+        if (null == values) {
+            return Collections.emptySet();
+        }
+        final Set<Link> links = new LinkedHashSet<>();
+        for (Object value : values) {
+            links.add(value instanceof Link ? (Link) value : LINK.fromString(value.toString()));
+        }
+        return links;
+    }
+
+    @Override
+    public boolean hasLink(final String relation) {
+        return null != getLink(relation);
+    }
+
+    @Override
+    public Link getLink(final String relation) {
+        for (Link link : getLinks()) {
+            if (link.getRels().contains(relation)) {
+                return link;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Link.Builder getLinkBuilder(final String relation) {
+        final Link link = getLink(relation);
+        return null == link ? null : Link.fromLink(link);
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getMetadata() {
+        return headers;
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getStringHeaders() {
+        final MultivaluedMap<String, String> strings = new MultivaluedHashMap<>();
+        for (Map.Entry<String, List<Object>> entry : headers.entrySet()) {
+            for (Object value : entry.getValue()) {
+                strings.add(entry.getKey(), RestRuntimeDelegate.toHeaderString(value));
+            }
+        }
+        return strings;
+    }
+
+    @Override
+    public String getHeaderString(final String name) {
+        final List<Object> values = headers.get(name);
+        if (null == values) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (Object value : values) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(RestRuntimeDelegate.toHeaderString(value));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + status + " " + headers;
+    }
+
+    /**
+     * Response.ok()等生成的ResponseBuilder
+     */
+    static final class Builder extends ResponseBuilder {
+
+        private int status = -1;
+        private String reasonPhrase;
+        private Object entity;
+        private Annotation[] annotations;
+        private MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+        @Override
+        public Response build() {
+            // 没有指定时, 有实体为200, 没有为204
+            final int code = status >= 0 ? status : (null == entity ? Status.NO_CONTENT.getStatusCode() : Status.OK.getStatusCode());
+            final MultivaluedMap<String, Object> values = new MultivaluedHashMap<>(headers);
+            return new RestResponse(code, reasonPhrase, entity, annotations, values);
+        }
+
+        @Override
+        public ResponseBuilder clone() {
+            final Builder builder = new Builder();
+            builder.status = status;
+            builder.reasonPhrase = reasonPhrase;
+            builder.entity = entity;
+            builder.annotations = annotations;
+            builder.headers = new MultivaluedHashMap<>(headers);
+            return builder;
+        }
+
+        @Override
+        public ResponseBuilder status(final int status) {
+            return status(status, null);
+        }
+
+        @Override
+        public ResponseBuilder status(final int status, final String reasonPhrase) {
+            if (status < 100 || status > 599) {
+                throw new IllegalArgumentException(String.format("Invalid status %1$d", status));
+            }
+            this.status = status;
+            this.reasonPhrase = reasonPhrase;
+            return this;
+        }
+
+        @Override
+        public ResponseBuilder entity(final Object entity) {
+            this.entity = entity;
+            return this;
+        }
+
+        @Override
+        public ResponseBuilder entity(final Object entity, final Annotation[] annotations) {
+            this.entity = entity;
+            this.annotations = annotations;
+            return this;
+        }
+
+        @Override
+        public ResponseBuilder allow(final String... methods) {
+            if (null == methods || (methods.length == 1 && null == methods[0])) {
+                return header(HttpHeaders.ALLOW, null);
+            }
+            return allow(new LinkedHashSet<>(Arrays.asList(methods)));
+        }
+
+        @Override
+        public ResponseBuilder allow(final Set<String> methods) {
+            if (null == methods) {
+                return header(HttpHeaders.ALLOW, null);
+            }
+            return replace(HttpHeaders.ALLOW, String.join(",", methods));
+        }
+
+        @Override
+        public ResponseBuilder cacheControl(final CacheControl cacheControl) {
+            return replace(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+
+        @Override
+        public ResponseBuilder encoding(final String encoding) {
+            return replace(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+
+        @Override
+        public ResponseBuilder header(final String name, final Object value) {
+            if (null == value) {
+                headers.remove(name);
+            } else {
+                headers.add(name, value);
+            }
+            return this;
+        }
+
+        private ResponseBuilder replace(final String name, final Object value) {
+            headers.remove(name);
+            return header(name, value);
+        }
+
+        @Override
+        public ResponseBuilder replaceAll(final MultivaluedMap<String, Object> headers) {
+            this.headers = null == headers ? new MultivaluedHashMap<>() : new MultivaluedHashMap<>(headers);
+            return this;
+        }
+
+        @Override
+        public ResponseBuilder language(final String language) {
+            return replace(HttpHeaders.CONTENT_LANGUAGE, language);
+        }
+
+        @Override
+        public ResponseBuilder language(final Locale language) {
+            return replace(HttpHeaders.CONTENT_LANGUAGE, language);
+        }
+
+        @Override
+        public ResponseBuilder type(final MediaType type) {
+            return replace(HttpHeaders.CONTENT_TYPE, type);
+        }
+
+        @Override
+        public ResponseBuilder type(final String type) {
+            return replace(HttpHeaders.CONTENT_TYPE, type);
+        }
+
+        @Override
+        public ResponseBuilder variant(final Variant variant) {
+            if (null == variant) {
+                type((String) null);
+                language((String) null);
+                return encoding(null);
+            }
+            type(variant.getMediaType());
+            language(variant.getLanguage());
+            return encoding(variant.getEncoding());
+        }
+
+        @Override
+        public ResponseBuilder contentLocation(final URI location) {
+            return replace(HttpHeaders.CONTENT_LOCATION, location);
+        }
+
+        @Override
+        public ResponseBuilder cookie(final NewCookie... cookies) {
+            if (null == cookies) {
+                return header(HttpHeaders.SET_COOKIE, null);
+            }
+            for (NewCookie cookie : cookies) {
+                header(HttpHeaders.SET_COOKIE, cookie);
+            }
+            return this;
+        }
+
+        @Override
+        public ResponseBuilder expires(final Date expires) {
+            return replace(HttpHeaders.EXPIRES, expires);
+        }
+
+        @Override
+        public ResponseBuilder lastModified(final Date lastModified) {
+            return replace(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+
+        @Override
+        public ResponseBuilder location(final URI location) {
+            return replace(HttpHeaders.LOCATION, location);
+        }
+
+        @Override
+        public ResponseBuilder tag(final EntityTag tag) {
+            return replace(HttpHeaders.ETAG, tag);
+        }
+
+        @Override
+        public ResponseBuilder tag(final String tag) {
+            return tag(null == tag ? null : new EntityTag(tag));
+        }
+
+        @Override
+        public ResponseBuilder variants(final Variant... variants) {
+            return variants(null == variants ? null : Arrays.asList(variants));
+        }
+
+        @Override
+        public ResponseBuilder variants(final List<Variant> variants) {
+            if (null == variants || variants.isEmpty()) {
+                return replace(HttpHeaders.VARY, null);
+            }
+            final Set<String> vary = new LinkedHashSet<>();
+            for (Variant variant : variants) {
+                if (null != variant.getMediaType()) {
+                    vary.add(HttpHeaders.ACCEPT);
+                }
+                if (null != variant.getLanguage()) {
+                    vary.add(HttpHeaders.ACCEPT_LANGUAGE);
+                }
+                if (null != variant.getEncoding()) {
+                    vary.add(HttpHeaders.ACCEPT_ENCODING);
+                }
+            }
+            return replace(HttpHeaders.VARY, vary.isEmpty() ? null : String.join(",", vary));
+        }
+
+        @Override
+        public ResponseBuilder links(final Link... links) {
+            if (null == links) {
+                return header(HttpHeaders.LINK, null);
+            }
+            for (Link link : links) {
+                header(HttpHeaders.LINK, link);
+            }
+            return this;
+        }
+
+        @Override
+        public ResponseBuilder link(final URI uri, final String rel) {
+            return header(HttpHeaders.LINK, "<" + uri + ">; rel=\"" + rel + "\"");
+        }
+
+        @Override
+        public ResponseBuilder link(final String uri, final String rel) {
+            return header(HttpHeaders.LINK, "<" + uri + ">; rel=\"" + rel + "\"");
+        }
+    }
+}
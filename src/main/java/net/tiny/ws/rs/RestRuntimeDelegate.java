@@ -0,0 +1,487 @@
+package net.tiny.ws.rs;
+
+import java.net.URI;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.Variant.VariantListBuilder;
+import javax.ws.rs.ext.RuntimeDelegate;
+
+/**
+ * 没有JAX-RS实现(Jersey, RESTEasy等)时使用的RuntimeDelegate
+ * 只支持 Response.ok() 等的 {@link RestResponse}, 和 MediaType, NewCookie, EntityTag, CacheControl, Link, Date 的响应头变换。
+ * UriBuilder, Link.Builder, VariantListBuilder, Endpoint 不支持, 安装时输出警告, 调用时抛出 {@link UnsupportedOperationException}。
+ * 类路径上有其他实现时不使用。
+ */
+final class RestRuntimeDelegate extends RuntimeDelegate {
+
+    private static final Logger LOGGER = Logger.getLogger(RestRuntimeDelegate.class.getName());
+
+    private static final Map<Class<?>, HeaderDelegate<?>> DELEGATES = new LinkedHashMap<>();
+    static {
+        DELEGATES.put(MediaType.class, new MediaTypeDelegate());
+        DELEGATES.put(NewCookie.class, new NewCookieDelegate());
+        DELEGATES.put(Link.class, new LinkDelegate());
+        DELEGATES.put(EntityTag.class, new EntityTagDelegate());
+        DELEGATES.put(CacheControl.class, new CacheControlDelegate());
+        DELEGATES.put(Date.class, new DateDelegate());
+    }
+
+    private static final String UNSUPPORTED = "UriBuilder, Link.Builder, VariantListBuilder, Endpoint";
+
+    private static volatile boolean installed = false;
+
+    /**
+     * 找不到JAX-RS实现时设置本类
+     * RuntimeDelegate是JVM全局的, 只在第一次调用时检查并设置
+     */
+    static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        try {
+            RuntimeDelegate.getInstance();
+        } catch (RuntimeException | LinkageError ex) {
+            RuntimeDelegate.setInstance(new RestRuntimeDelegate());
+            LOGGER.warning(String.format("[REST] - No JAX-RS runtime found, using %1$s. %2$s are not supported.",
+                    RestRuntimeDelegate.class.getSimpleName(), UNSUPPORTED));
+        }
+    }
+
+    /**
+     * 把响应头的值变换成文字列
+     *
+     * @param value String, Date, MediaType, NewCookie, EntityTag, URI等
+     * @return
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static String toHeaderString(final Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Number || value instanceof URI) {
+            return value.toString();
+        }
+        if (value instanceof Date) {
+            return formatDate((Date) value);
+        }
+        if (value instanceof Locale) {
+            return ((Locale) value).toLanguageTag();
+        }
+        HeaderDelegate delegate = null;
+        try {
+            delegate = RuntimeDelegate.getInstance().createHeaderDelegate(value.getClass());
+        } catch (RuntimeException ex) {
+            // 不支持的类型
+        }
+        return null != delegate ? delegate.toString(value) : value.toString();
+    }
+
+    static String formatDate(final Date date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(date.toInstant().atOffset(ZoneOffset.UTC));
+    }
+
+    static Date parseDate(final String text) {
+        return Date.from(ZonedDateTime.parse(text.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+    }
+
+    @Override
+    public ResponseBuilder createResponseBuilder() {
+        return new RestResponse.Builder();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> HeaderDelegate<T> createHeaderDelegate(final Class<T> type) {
+        if (null == type) {
+            throw new IllegalArgumentException("type is null");
+        }
+        for (Map.Entry<Class<?>, HeaderDelegate<?>> entry : DELEGATES.entrySet()) {
+            if (entry.getKey().isAssignableFrom(type)) {
+                return (HeaderDelegate<T>) entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public UriBuilder createUriBuilder() {
+        throw unsupported(UriBuilder.class);
+    }
+
+    @Override
+    public VariantListBuilder createVariantListBuilder() {
+        throw unsupported(VariantListBuilder.class);
+    }
+
+    @Override
+    public <T> T createEndpoint(final Application application, final Class<T> endpointType) {
+        throw unsupported(endpointType);
+    }
+
+    @Override
+    public Link.Builder createLinkBuilder() {
+        throw unsupported(Link.Builder.class);
+    }
+
+    private static UnsupportedOperationException unsupported(final Class<?> type) {
+        return new UnsupportedOperationException(String.format(
+                "%1$s is not supported by %2$s, add a JAX-RS implementation (Jersey, RESTEasy) to the classpath.",
+                type.getName(), RestRuntimeDelegate.class.getSimpleName()));
+    }
+
+    /**
+     * 含有分隔符或空白的值用引号括起来
+     */
+    static String quote(final String value) {
+        if (null == value) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c <= ' ' || c == '"' || c == ',' || c == ';' || c == '\\' || c == '=') {
+                return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    static String unquote(final String value) {
+        final String text = value.trim();
+        if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+            return text.substring(1, text.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+        return text;
+    }
+
+    static final class MediaTypeDelegate implements HeaderDelegate<MediaType> {
+        @Override
+        public MediaType fromString(final String value) {
+            if (null == value) {
+                throw new IllegalArgumentException("value is null");
+            }
+            final String[] parts = value.split(";");
+            final String name = parts[0].trim();
+            final int slash = name.indexOf('/');
+            final String type = slash < 0 ? name : name.substring(0, slash);
+            final String subtype = slash < 0 ? MediaType.MEDIA_TYPE_WILDCARD : name.substring(slash + 1);
+            final Map<String, String> parameters = new LinkedHashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                final int eq = parts[i].indexOf('=');
+                if (eq > 0) {
+                    parameters.put(parts[i].substring(0, eq).trim(), unquote(parts[i].substring(eq + 1)));
+                }
+            }
+            return new MediaType(type, subtype, parameters);
+        }
+
+        @Override
+        public String toString(final MediaType value) {
+            final StringBuilder sb = new StringBuilder(value.getType()).append('/').append(value.getSubtype());
+            for (Map.Entry<String, String> entry : value.getParameters().entrySet()) {
+                sb.append(';').append(entry.getKey()).append('=').append(quote(entry.getValue()));
+            }
+            return sb.toString();
+        }
+    }
+
+    static final class NewCookieDelegate implements HeaderDelegate<NewCookie> {
+        @Override
+        public NewCookie fromString(final String value) {
+            if (null == value) {
+                throw new IllegalArgumentException("value is null");
+            }
+            String name = null;
+            String cookieValue = null;
+            String comment = null;
+            String domain = null;
+            String path = null;
+            int maxAge = NewCookie.DEFAULT_MAX_AGE;
+            int version = NewCookie.DEFAULT_VERSION;
+            Date expiry = null;
+            boolean secure = false;
+            boolean httpOnly = false;
+            for (String part : value.split(";")) {
+                final int eq = part.indexOf('=');
+                final String key = (eq < 0 ? part : part.substring(0, eq)).trim();
+                final String text = eq < 0 ? null : unquote(part.substring(eq + 1));
+                if (null == name) {
+                    name = key;
+                    cookieValue = text;
+                } else if ("Comment".equalsIgnoreCase(key)) {
+                    comment = text;
+                } else if ("Domain".equalsIgnoreCase(key)) {
+                    domain = text;
+                } else if ("Path".equalsIgnoreCase(key)) {
+                    path = text;
+                } else if ("Max-Age".equalsIgnoreCase(key)) {
+                    maxAge = Integer.parseInt(text);
+                } else if ("Version".equalsIgnoreCase(key)) {
+                    version = Integer.parseInt(text);
+                } else if ("Expires".equalsIgnoreCase(key)) {
+                    expiry = parseDate(text);
+                } else if ("Secure".equalsIgnoreCase(key)) {
+                    secure = true;
+                } else if ("HttpOnly".equalsIgnoreCase(key)) {
+                    httpOnly = true;
+                }
+            }
+            if (null == name || name.isEmpty()) {
+                throw new IllegalArgumentException(String.format("Invalid cookie '%s'", value));
+            }
+            return new NewCookie(name, cookieValue, path, domain, version, comment, maxAge, expiry, secure, httpOnly);
+        }
+
+        @Override
+        public String toString(final NewCookie value) {
+            final StringBuilder sb = new StringBuilder(value.getName()).append('=').append(quote(value.getValue()));
+            sb.append(";Version=").append(value.getVersion());
+            if (null != value.getComment()) {
+                sb.append(";Comment=").append(quote(value.getComment()));
+            }
+            if (null != value.getDomain()) {
+                sb.append(";Domain=").append(quote(value.getDomain()));
+            }
+            if (null != value.getPath()) {
+                sb.append(";Path=").append(quote(value.getPath()));
+            }
+            if (value.getMaxAge() != NewCookie.DEFAULT_MAX_AGE) {
+                sb.append(";Max-Age=").append(value.getMaxAge());
+            }
+            if (null != value.getExpiry()) {
+                sb.append(";Expires=").append(formatDate(value.getExpiry()));
+            }
+            if (value.isSecure()) {
+                sb.append(";Secure");
+            }
+            if (value.isHttpOnly()) {
+                sb.append(";HttpOnly");
+            }
+            return sb.toString();
+        }
+    }
+
+    static final class EntityTagDelegate implements HeaderDelegate<EntityTag> {
+        @Override
+        public EntityTag fromString(final String value) {
+            if (null == value) {
+                throw new IllegalArgumentException("value is null");
+            }
+            String text = value.trim();
+            final boolean weak = text.startsWith("W/");
+            if (weak) {
+                text = text.substring(2);
+            }
+            return new EntityTag(unquote(text), weak);
+        }
+
+        @Override
+        public String toString(final EntityTag value) {
+            final String tag = '"' + value.getValue().replace("\"", "\\\"") + '"';
+            return value.isWeak() ? "W/" + tag : tag;
+        }
+    }
+
+    static final class CacheControlDelegate implements HeaderDelegate<CacheControl> {
+        @Override
+        public CacheControl fromString(final String value) {
+            if (null == value) {
+                throw new IllegalArgumentException("value is null");
+            }
+            final CacheControl cc = new CacheControl();
+            cc.setNoTransform(false);
+            for (String part : value.split(",")) {
+                final int eq = part.indexOf('=');
+                final String key = (eq < 0 ? part : part.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+                final String text = eq < 0 ? null : unquote(part.substring(eq + 1));
+                switch (key) {
+                case "no-cache":
+                    cc.setNoCache(true);
+                    break;
+                case "no-store":
+                    cc.setNoStore(true);
+                    break;
+                case "private":
+                    cc.setPrivate(true);
+                    break;
+                case "no-transform":
+                    cc.setNoTransform(true);
+                    break;
+                case "must-revalidate":
+                    cc.setMustRevalidate(true);
+                    break;
+                case "proxy-revalidate":
+                    cc.setProxyRevalidate(true);
+                    break;
+                case "max-age":
+                    cc.setMaxAge(Integer.parseInt(text));
+                    break;
+                case "s-maxage":
+                    cc.setSMaxAge(Integer.parseInt(text));
+                    break;
+                default:
+                    if (!key.isEmpty()) {
+                        cc.getCacheExtension().put(key, text);
+                    }
+                }
+            }
+            return cc;
+        }
+
+        @Override
+        public String toString(final CacheControl value) {
+            final StringBuilder sb = new StringBuilder();
+            if (value.isPrivate()) {
+                append(sb, "private");
+            }
+            if (value.isNoCache()) {
+                append(sb, "no-cache");
+            }
+            if (value.isNoStore()) {
+                append(sb, "no-store");
+            }
+            if (value.isNoTransform()) {
+                append(sb, "no-transform");
+            }
+            if (value.isMustRevalidate()) {
+                append(sb, "must-revalidate");
+            }
+            if (value.isProxyRevalidate()) {
+                append(sb, "proxy-revalidate");
+            }
+            if (value.getMaxAge() >= 0) {
+                append(sb, "max-age=" + value.getMaxAge());
+            }
+            if (value.getSMaxAge() >= 0) {
+                append(sb, "s-maxage=" + value.getSMaxAge());
+            }
+            for (Map.Entry<String, String> entry : value.getCacheExtension().entrySet()) {
+                append(sb, null == entry.getValue() ? entry.getKey() : entry.getKey() + "=" + quote(entry.getValue()));
+            }
+            return sb.toString();
+        }
+
+        private static void append(final StringBuilder sb, final String directive) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(directive);
+        }
+    }
+
+    /**
+     * Link响应头 {@code <uri>; rel="next"; title="..."}
+     */
+    static final class LinkDelegate implements HeaderDelegate<Link> {
+        @Override
+        public Link fromString(final String value) {
+            if (null == value) {
+                throw new IllegalArgumentException("value is null");
+            }
+            final String text = value.trim();
+            final int end = text.indexOf('>');
+            if (!text.startsWith("<") || end < 0) {
+                throw new IllegalArgumentException(String.format("Invalid link '%s'", value));
+            }
+            final Map<String, String> params = new LinkedHashMap<>();
+            for (String part : text.substring(end + 1).split(";")) {
+                final int eq = part.indexOf('=');
+                if (eq > 0) {
+                    params.put(part.substring(0, eq).trim(), unquote(part.substring(eq + 1)));
+                }
+            }
+            return new HeaderLink(URI.create(text.substring(1, end).trim()), params);
+        }
+
+        @Override
+        public String toString(final Link value) {
+            final StringBuilder sb = new StringBuilder("<").append(value.getUri()).append('>');
+            for (Map.Entry<String, String> entry : value.getParams().entrySet()) {
+                sb.append("; ").append(entry.getKey()).append("=\"")
+                    .append(entry.getValue().replace("\"", "\\\"")).append('"');
+            }
+            return sb.toString();
+        }
+    }
+
+    static final class HeaderLink extends Link {
+        private final URI uri;
+        private final Map<String, String> params;
+
+        HeaderLink(final URI uri, final Map<String, String> params) {
+            this.uri = uri;
+            this.params = Collections.unmodifiableMap(params);
+        }
+
+        @Override
+        public URI getUri() {
+            return uri;
+        }
+
+        @Override
+        public UriBuilder getUriBuilder() {
+            return UriBuilder.fromUri(uri);
+        }
+
+        @Override
+        public String getRel() {
+            return params.get(REL);
+        }
+
+        @Override
+        public List<String> getRels() {
+            final String rel = params.get(REL);
+            return null == rel ? Collections.<String>emptyList() : Arrays.asList(rel.trim().split("\\s+"));
+        }
+
+        @Override
+        public String getTitle() {
+            return params.get(TITLE);
+        }
+
+        @Override
+        public String getType() {
+            return params.get(TYPE);
+        }
+
+        @Override
+        public Map<String, String> getParams() {
+            return params;
+        }
+
+        @Override
+        public String toString() {
+            return new LinkDelegate().toString(this);
+        }
+    }
+
+    static final class DateDelegate implements HeaderDelegate<Date> {
+        @Override
+        public Date fromString(final String value) {
+            return parseDate(value);
+        }
+
+        @Override
+        public String toString(final Date value) {
+            return formatDate(value);
+        }
+    }
+}
@@ -1,304 +1,233 @@
-package net.tiny.ws.rs;
-
-import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Array;
-import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.Vector;
-import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import javax.annotation.Resource;
-import javax.ws.rs.CookieParam;
-import javax.ws.rs.DefaultValue;
-import javax.ws.rs.FormParam;
-import javax.ws.rs.HeaderParam;
-import javax.ws.rs.MatrixParam;
-import javax.ws.rs.PathParam;
-import javax.ws.rs.QueryParam;
-import javax.ws.rs.ServiceUnavailableException;
-import javax.ws.rs.WebApplicationException;
-import javax.ws.rs.core.Application;
-import javax.ws.rs.core.Context;
-
-import com.sun.net.httpserver.HttpExchange;
-
-import net.tiny.config.Converter;
-
-public class RestServiceFactory {
-
-    private static Logger LOGGER = Logger.getLogger(RestServiceFactory.class.getName());
-
-    private static final String REGEX_COOKIE_NAME_VALUE = "^(\\w+)=(.*)$";
-    private static final Pattern COOKIE_PATTERN = Pattern.compile(REGEX_COOKIE_NAME_VALUE);
-
-    @Resource(name = "restApplication")
-    private Application application;
-    private Vector<RestServiceWrapper> servicePatterns = new Vector<RestServiceWrapper>();
-    private boolean initing = false;
-    private boolean changed = true;
-    private Converter converter = new Converter();
-
-    public Application getApplication() {
-        return this.application;
-    }
-
-    public void setApplication(Application application) {
-        this.application = application;
-        this.changed = true;
-        setup();
-    }
-
-    /**
-     * 初始化RestService配置
-     */
-    public synchronized void setup()  {
-        if(!changed)
-            return;
-        initing = true;
-        servicePatterns .clear();
-        try {
-            Set<Class<?>> serviceClasses = application.getClasses();
-            for(Class<?> serviceClass : serviceClasses) {
-                Object target = serviceClass.newInstance();
-                RestServiceWrapper wrapper = new RestServiceWrapper(target);
-                servicePatterns.add(wrapper);
-                LOGGER.fine(String.format("[REST] - %s", wrapper.toString()));
-            }
-            if(this.servicePatterns.isEmpty()) {
-                throw new WebApplicationException("One REST service also could not be found.");
-            }
-            // 对配置项进行排序，方便后面的查找
-            Collections.sort(servicePatterns);
-            //检查是否有重复的url
-            checkDuplicateUrl();
-        } catch (final RuntimeException e) {
-            throw e;
-        } catch (final Exception e) {
-            throw new WebApplicationException(e.getMessage(), e);
-        } finally {
-            initing = false;
-            changed = false;
-        }
-    }
-
-
-    /**
-     * Servlet通过访问要求取得相应的RestService句柄，并把解析的参数放入Map里
-     *
-     * @param request
-     * @param args
-     * @return 句柄
-     */
-    public RestServiceHandler getRestServiceHandler(final String realUrl, final String httpMthod, final Map<String, Object> args) throws IOException {
-        Hitting<?> hit = hit(realUrl, httpMthod, args);
-        if(null != hit) {
-            return hit.getTarget(RestServiceHandler.class);
-        }
-        return null;
-    }
-
-    public Object[] convertArguments(final HttpExchange he, final Map<String, Object> args, final Method method) throws UnsupportedEncodingException {
-        Class<?>[] paramTypes = method.getParameterTypes();
-        Annotation[][] annotations = method.getParameterAnnotations();
-        Object[] argements = new Object[paramTypes.length];
-        for(int i=0; i<argements.length; i++) {
-            String key = getParameterKey(annotations[i]);
-            if(null != key) {
-                argements[i] = convertParameter(args, key, annotations[i], paramTypes[i]);
-            } else {
-                argements[i] = convertParameter(he, annotations[i], paramTypes[i]);
-            }
-        }
-        return argements;
-    }
-
-    /**
-     * 注解
-     * @param annotations
-     * @return
-     */
-    private String getParameterKey(Annotation[] annotations) {
-        for(Annotation annotation : annotations) {
-            if(annotation instanceof PathParam) {
-                return ((PathParam)annotation).value();
-            } else if(annotation instanceof QueryParam) {
-                return ((QueryParam)annotation).value();
-            } else if(annotation instanceof MatrixParam) {
-                return ((MatrixParam)annotation).value();
-            } else if(annotation instanceof FormParam) {
-                return ((FormParam)annotation).value();
-            }
-        }
-        return null;
-    }
-
-    private Object convertParameter(final Map<String, Object> args, String key, Annotation[] annotations, Class<?> paramType) {
-        Object value  = args.get(key);
-        if(value != null && value.getClass().isArray() && !paramType.isArray()) {
-            value = Array.get(value, 0);
-        }
-        if(value != null && !paramType.isInstance(value)) {
-            value = converter.convert(value.toString(), paramType);
-        }
-        if(value == null) {
-            // Set default value  see @DefaultValue
-            for(Annotation annotation : annotations) {
-                if(annotation instanceof DefaultValue) {
-                    value = converter.convert(((DefaultValue)annotation).value(), paramType);
-                }
-            }
-        }
-        return value;
-    }
-
-    private Object convertParameter(final HttpExchange he, Annotation[] annotations, Class<?> paramType) {
-        String key = null;
-        for(Annotation annotation : annotations) {
-            if(annotation instanceof HeaderParam) {
-                key = ((HeaderParam)annotation).value();
-                String value = he.getRequestHeaders().getFirst(key);
-                if(value != null && !paramType.isInstance(value)) {
-                    return converter.convert(value.toString(), paramType);
-                }
-                return value;
-            } else if(annotation instanceof CookieParam) {
-                key = ((CookieParam)annotation).value();
-                String value = getCookie(he, key, true);
-                return converter.convert(value.toString(), paramType);
-            } else if (annotation instanceof Context) {
-                LOGGER.warning("[REST] - Not support @Context parameter type.");
-                /*
-                if(paramType.isAssignableFrom(UriInfo.class)) {
-                    //return new UriInfo();
-                } else if(paramType.isAssignableFrom(HttpHeaders.class)) {
-                    //return new HttpHeaders();
-                }
-                */
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Search and retreive a cookie from a HTTP request context
-     * @param key, The cookie name to search for
-     * @param pReturnJustValue, return just the cookie value or the name + value i.e. "foo=bar;fie;etc";
-     * @return
-     */
-    public String getCookie(HttpExchange he, String key, boolean justValue) {
-        Iterator<Map.Entry<String, List<String>>> it =
-                he.getRequestHeaders().entrySet().iterator();
-        while( it.hasNext()) {
-            Map.Entry<String, List<String>> entry = it.next();
-            if(entry.getKey().toLowerCase().contentEquals("cookie")){
-                String result = getCookieFromSearchString(key, entry.getValue().get(0));
-                if(result != null) {
-                    if (justValue) {
-                        Matcher m = COOKIE_PATTERN.matcher(result);
-                        if ((m.matches()) && (m.groupCount() == 2)) {
-                            return m.group(2);
-                        } else {
-                            return result;
-                        }
-                    }
-                }
-                return result;
-            }
-        }
-        return null;
-    }
-
-    private String getCookieFromSearchString(String key, String wholeCookie) {
-        if (wholeCookie.contains(";")) {
-            String data[] = wholeCookie.split(";");
-            for (int i = 0; i < data.length; i++) {
-                if (data[i].trim().startsWith(key)) {
-                    return data[i].trim();
-                }
-            }
-        } else if (wholeCookie.startsWith(key)) {
-            return wholeCookie;
-        }
-        return null;
-    }
-
-
-    /**
-     * 通过url取得相应的RestService索引
-     *
-     * @param realUrl
-     * @return 索引
-     */
-    protected Hitting<?> hit(final String realUrl, final String requestMethod,  final Map<String, Object> args) throws IOException {
-        if (initing) {
-            throw new ServiceUnavailableException();
-        }
-        // 折半查找RestService实体
-        int low = 0;
-        int high = servicePatterns.size();
-        int index = (low + high) / 2;
-        Hitting<?> hit = servicePatterns.get((low + high) / 2).hit(realUrl, requestMethod, args);
-        int compareRet = hit.getHit();
-        while (compareRet != 0 && ((high - low) != 1)) {
-            if (compareRet > 0) {
-                high = index;
-            } else {
-                low = index;
-            }
-            index = (low + high) / 2;
-            hit = servicePatterns.get((low + high) / 2).hit(realUrl, requestMethod, args);
-            compareRet = hit.getHit();
-        }
-        if(0 == compareRet) {
-            return hit;
-        } else {
-            return null;
-        }
-    }
-
-    public String info(boolean detail) {
-        StringBuilder msg = new StringBuilder(getClass().getSimpleName());
-        msg.append("@" + hashCode());
-        msg.append(String.format(" - [%1$d]", servicePatterns.size()));
-        if(detail) {
-            if(!servicePatterns.isEmpty()) {
-                msg.append("\r\n");
-                for(RestServiceWrapper rest : servicePatterns) {
-                    msg.append(rest.toString());
-                    msg.append("\r\n");
-                }
-            }
-            return msg.toString();
-        } else {
-            return msg.toString();
-        }
-    }
-
-    /**
-     * 检查是否有重复的url定义
-     */
-    private void checkDuplicateUrl() {
-        RestServiceWrapper prePattern = null;
-        final Iterator<RestServiceWrapper> iterator = servicePatterns.iterator();
-        while (iterator.hasNext()) {
-            final RestServiceWrapper pattern = iterator.next();
-            if (pattern.compareTo(prePattern) <= 0) {
-                throw new WebApplicationException(String.format("Duplicate url : '%s'", pattern.getPath()));
-            }
-            prePattern = pattern;
-        }
-    }
-
-    @Override
-    public String toString() {
-        return info(false);
-    }
-}
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Application;
+
+import com.sun.net.httpserver.HttpExchange;
+
+public class RestServiceFactory {
+
+    private static Logger LOGGER = Logger.getLogger(RestServiceFactory.class.getName());
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    @Resource(name = "restApplication")
+    private Application application;
+    /** 路由表的快照，重新载入时整体替换 */
+    private volatile RouteTable table = RouteTable.EMPTY;
+    private volatile boolean changed = true;
+    /** URI解析结果缓存的容量, 0时不缓存 */
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+
+    public Application getApplication() {
+        return this.application;
+    }
+
+    public void setApplication(Application application) {
+        this.application = application;
+        this.changed = true;
+        setup();
+    }
+
+    public int getCacheSize() {
+        return this.cacheSize;
+    }
+
+    /**
+     * 设置URI解析结果缓存的容量，同时清空已缓存的结果
+     *
+     * @param size 0时不缓存
+     */
+    public synchronized void setCacheSize(int size) {
+        this.cacheSize = Math.max(0, size);
+        table = table.withCache(this.cacheSize);
+    }
+
+    /**
+     * 初始化RestService配置
+     * 新的路由表生成完毕后才替换，期间请求继续使用旧的路由表。
+     */
+    public synchronized void setup()  {
+        if(!changed)
+            return;
+        // 没有JAX-RS实现时使用内置的Response生成器
+        RestRuntimeDelegate.install();
+        try {
+            List<RestServiceWrapper> wrappers = new ArrayList<>();
+            Set<Class<?>> serviceClasses = application.getClasses();
+            for(Class<?> serviceClass : serviceClasses) {
+                // 生成模式 see @ServiceMode
+                String mode = null;
+                if(application instanceof RestApplication) {
+                    mode = ((RestApplication)application).getServiceMode(serviceClass);
+                }
+                wrappers.add(new RestServiceWrapper(serviceClass.newInstance(), mode));
+            }
+            RouteTable routes = RouteTable.build(wrappers, cacheSize);
+            // 不保留重新部署前的类的写出器
+            BeanWriter.clear();
+            for(RestServiceWrapper wrapper : routes.getServices()) {
+                LOGGER.fine(String.format("[REST] - %s", wrapper.toString()));
+                // 按返回类型预先生成JSON写出器
+                for(MethodPattern pattern : wrapper.getMethodPatterns()) {
+                    BeanWriter.register(pattern.getMethod().getGenericReturnType());
+                }
+            }
+            table = routes;
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new WebApplicationException(e.getMessage(), e);
+        } finally {
+            changed = false;
+        }
+    }
+
+
+    /**
+     * Servlet通过访问要求取得相应的RestService句柄，并把解析的参数放入Map里
+     *
+     * @param request
+     * @param args
+     * @return 句柄
+     */
+    public RestServiceHandler getRestServiceHandler(final String realUrl, final String httpMthod, final Map<String, Object> args) throws IOException {
+        Hitting<?> hit = hit(realUrl, httpMthod, args);
+        if(null != hit) {
+            return hit.getTarget(RestServiceHandler.class);
+        }
+        return null;
+    }
+
+    /**
+     * 该URI只在其他HTTP方法下登录时，取得预先生成的"Allow"头
+     *
+     * @param realUrl
+     * @param httpMethod 请求的HTTP方法
+     * @return "GET, POST"等, 没有登录或该方法已登录时为null
+     */
+    public String getAllowedMethods(final String realUrl, final String httpMethod) {
+        return table.allowedMethods(realUrl, httpMethod);
+    }
+
+    /**
+     * 查找URI对应的RestService，解析的参数按方法参数下标排列
+     *
+     * @param realUrl
+     * @param httpMethod
+     * @return 查找结果, 没找到时为null
+     */
+    public RouteMatch match(final String realUrl, final String httpMethod) throws IOException {
+        return table.match(realUrl, httpMethod);
+    }
+
+    /**
+     * 按预先生成的参数绑定器，把查找结果的参数数组直接变换成方法的参数
+     *
+     * @param he
+     * @param match
+     * @return
+     */
+    public Object[] convertArguments(final HttpExchange he, final RouteMatch match) throws IOException {
+        final MethodPattern pattern = match.getMethodPattern();
+        // 有@FormParam时解码form请求体
+        final FormDecoder form = pattern.getForm();
+        if(null != form && null != he) {
+            form.decode(he, match.getArguments());
+        }
+        return ParameterBinder.bindSlots(pattern.getBinders(), he, match.getArguments());
+    }
+
+    /**
+     * 按预先生成的参数绑定器取得方法的参数
+     *
+     * @param he
+     * @param args URI解析的参数
+     * @param handler
+     * @return
+     */
+    public Object[] convertArguments(final HttpExchange he, final Map<String, Object> args, final RestServiceHandler handler) throws IOException {
+        if(handler instanceof MethodPattern) {
+            return ParameterBinder.bind(((MethodPattern)handler).getBinders(), he, args);
+        }
+        return convertArguments(he, args, handler.getMethod());
+    }
+
+    public Object[] convertArguments(final HttpExchange he, final Map<String, Object> args, final Method method) throws IOException {
+        return ParameterBinder.bind(ParameterBinder.compile(method), he, args);
+    }
+
+    /**
+     * Search and retreive a cookie from a HTTP request context
+     * @param key, The cookie name to search for
+     * @param pReturnJustValue, return just the cookie value or the name + value i.e. "foo=bar;fie;etc";
+     * @return
+     */
+    public String getCookie(HttpExchange he, String key, boolean justValue) {
+        return ParameterBinder.getCookie(he, key, justValue);
+    }
+
+
+    /**
+     * 通过url取得相应的RestService索引
+     *
+     * @param realUrl
+     * @return 索引
+     */
+    protected Hitting<?> hit(final String realUrl, final String requestMethod,  final Map<String, Object> args) throws IOException {
+        // 沿路由树查找RestService实体
+        RouteMatch match = table.match(realUrl, requestMethod);
+        if(null != match) {
+            if(null != args) {
+                match.getMethodPattern().putArguments(match.getArguments(), args);
+            }
+            return match.getMethodPattern().getHitting();
+        }
+        return null;
+    }
+
+    public String info(boolean detail) {
+        StringBuilder msg = new StringBuilder(getClass().getSimpleName());
+        msg.append("@" + hashCode());
+        final List<RestServiceWrapper> services = table.getServices();
+        msg.append(String.format(" - [%1$d]", services.size()));
+        if(detail) {
+            LruCache<?, ?> cache = table.getCache();
+            if(null != cache) {
+                msg.append(" ");
+                msg.append(cache.toString());
+            }
+            if(!services.isEmpty()) {
+                msg.append("\r\n");
+                for(RestServiceWrapper rest : services) {
+                    msg.append(rest.toString());
+                    msg.append("\r\n");
+                    // @Cached的命中率
+                    for(MethodPattern pattern : rest.getMethodPatterns()) {
+                        if(null != pattern.getCache()) {
+                            msg.append(String.format("  '%1$s' %2$s", pattern.getPattern(), pattern.getCache()));
+                            msg.append("\r\n");
+                        }
+                    }
+                }
+            }
+            return msg.toString();
+        } else {
+            return msg.toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return info(false);
+    }
+}
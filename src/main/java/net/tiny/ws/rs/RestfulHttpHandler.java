@@ -1,61 +1,697 @@
-package net.tiny.ws.rs;
-
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
-
-import com.sun.net.httpserver.HttpExchange;
-
-import net.tiny.config.JsonParser;
-import net.tiny.ws.BaseWebService;
-import net.tiny.ws.HttpHandlerHelper;
-import net.tiny.ws.RequestHelper;
-import net.tiny.ws.ResponseHeaderHelper;
-
-public class RestfulHttpHandler extends BaseWebService {
-
-    private RestServiceFactory factory;
-
-    public RestServiceFactory getFactory() {
-        return this.factory;
-    }
-
-    public RestfulHttpHandler setFactory(RestServiceFactory factory) {
-        this.factory = factory;
-        return this;
-    }
-
-    @Override
-    protected void execute(HTTP_METHOD method, HttpExchange he) throws IOException {
-        final RequestHelper request = HttpHandlerHelper.getRequestHelper(he);
-
-        final Map<String, Object> args = new HashMap<>();
-        RestServiceHandler handler = factory.getRestServiceHandler(request.getURI(),
-                request.getMethod(), args);
-        if (null == handler) {
-            // Not found service
-            he.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
-            LOGGER.fine(String.format("[REST] - '%s' 404 Not found", request.getURI()));
-            return;
-        }
-
-        if (!handler.acceptableMediaType(MIME_TYPE.JSON.name())) {
-            //TODO
-            //he.sendResponseHeaders(HttpURLConnection.HTTP_NOT_ACCEPTABLE, -1);
-            LOGGER.fine(String.format("[REST] - '%s' 404 Not found", request.getURI()));
-            //return;
-        }
-
-        Object[] params = factory.convertArguments(he, args, handler.getMethod());
-        Object result = handler.invoke(params);
-        final String response = JsonParser.marshal(result);
-        final byte[] rawResponse = response.getBytes(StandardCharsets.UTF_8);
-        final ResponseHeaderHelper header = HttpHandlerHelper.getHeaderHelper(he);
-        header.setContentType(MIME_TYPE.JSON);
-        he.sendResponseHeaders(HttpURLConnection.HTTP_OK, rawResponse.length);
-        he.getResponseBody().write(rawResponse);
-    }
-
-}
+package net.tiny.ws.rs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.stream.BaseStream;
+import java.util.zip.Deflater;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import net.tiny.ws.BaseWebService;
+import net.tiny.ws.HttpHandlerHelper;
+import net.tiny.ws.RequestHelper;
+import net.tiny.ws.ResponseHeaderHelper;
+
+public class RestfulHttpHandler extends BaseWebService {
+
+    public static final int DEFAULT_COMPRESS_MIN_SIZE = 1024;
+    public static final long DEFAULT_MAX_ENTITY_SIZE = 1024L * 1024L;
+    public static final long DEFAULT_ASYNC_TIMEOUT = 30000L;
+    /** 在服务器的线程池的线程中执行资源方法 */
+    public static final String PLATFORM = "platform";
+    /** 在虚拟线程(JDK 21+)中执行资源方法 */
+    public static final String VIRTUAL = "virtual";
+    /** 每行一个JSON值 */
+    public static final String NDJSON = "application/x-ndjson";
+
+    private RestServiceFactory factory;
+    /** 响应体在该大小以内时按固定长度送出, 超过时按chunked送出 */
+    private int bufferSize = ResponseOutputStream.DEFAULT_BUFFER_SIZE;
+    /** 按"Accept-Encoding"压缩响应 */
+    private boolean compression = true;
+    /** 小于该大小的响应不压缩 */
+    private int compressMinSize = DEFAULT_COMPRESS_MIN_SIZE;
+    private int compressLevel = Deflater.BEST_SPEED;
+    /** 请求体的最大字节数, 0以下时不限制 */
+    private long maxEntitySize = DEFAULT_MAX_ENTITY_SIZE;
+    /** 异步处理的超时毫秒数, 超时后返回503, 0以下时不超时 */
+    private long asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
+    private String executionMode = PLATFORM;
+    /** 虚拟线程的执行器, platform时为null */
+    private volatile ExecutorService executor;
+    /**
+     * 每个路由同时执行的上限, 0以下时不限制
+     * platform时没有空位立即返回503, virtual时在虚拟线程中最多等待asyncTimeout。
+     * 异步的结果在完成(或超时)时才归还。
+     * 按路由的键(HTTP方法和pattern)保存, 重新加载后不保留旧的服务实体。
+     */
+    private int maxConcurrency = 0;
+    private final ConcurrentMap<String, Semaphore> limits = new ConcurrentHashMap<>();
+    /** 优先于JSON的实体写出器 */
+    private List<MessageBodyWriter<?>> writers = Collections.emptyList();
+    /** 是否生成ETag并按"If-None-Match"返回304 */
+    private boolean etag = true;
+
+    public RestServiceFactory getFactory() {
+        return this.factory;
+    }
+
+    public RestfulHttpHandler setFactory(RestServiceFactory factory) {
+        this.factory = factory;
+        return this;
+    }
+
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    public RestfulHttpHandler setBufferSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid buffer size %1$d", size));
+        }
+        this.bufferSize = size;
+        return this;
+    }
+
+    public boolean isCompression() {
+        return this.compression;
+    }
+
+    public RestfulHttpHandler setCompression(boolean compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    public int getCompressMinSize() {
+        return this.compressMinSize;
+    }
+
+    public RestfulHttpHandler setCompressMinSize(int size) {
+        this.compressMinSize = size;
+        return this;
+    }
+
+    public int getCompressLevel() {
+        return this.compressLevel;
+    }
+
+    /**
+     * @param level 1(最快)~9(最小), -1为默认
+     */
+    public RestfulHttpHandler setCompressLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(String.format("Invalid compress level %1$d", level));
+        }
+        this.compressLevel = level;
+        return this;
+    }
+
+    public long getMaxEntitySize() {
+        return this.maxEntitySize;
+    }
+
+    public RestfulHttpHandler setMaxEntitySize(long size) {
+        this.maxEntitySize = size;
+        return this;
+    }
+
+    public boolean isEtag() {
+        return this.etag;
+    }
+
+    public RestfulHttpHandler setEtag(boolean enable) {
+        this.etag = enable;
+        return this;
+    }
+
+    public long getAsyncTimeout() {
+        return this.asyncTimeout;
+    }
+
+    public RestfulHttpHandler setAsyncTimeout(long timeout) {
+        this.asyncTimeout = timeout;
+        return this;
+    }
+
+    public String getExecutionMode() {
+        return this.executionMode;
+    }
+
+    /**
+     * @param mode "platform" 或 "virtual", 不支持虚拟线程的JDK上按platform执行
+     */
+    public synchronized RestfulHttpHandler setExecutionMode(String mode) {
+        if (!PLATFORM.equals(mode) && !VIRTUAL.equals(mode)) {
+            throw new IllegalArgumentException(String.format("Invalid execution mode '%s'", mode));
+        }
+        if (VIRTUAL.equals(mode) && null == executor) {
+            executor = VirtualThreads.newExecutor();
+            if (null == executor) {
+                LOGGER.warning(String.format("[REST] - Virtual threads are not supported on Java %s, using platform threads.",
+                        System.getProperty("java.version")));
+                this.executionMode = PLATFORM;
+                return this;
+            }
+        } else if (PLATFORM.equals(mode) && null != executor) {
+            executor.shutdown();
+            executor = null;
+        }
+        this.executionMode = mode;
+        return this;
+    }
+
+    /**
+     * 指定执行资源方法的执行器(测试用), null时按platform执行
+     */
+    synchronized RestfulHttpHandler setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        this.executionMode = null == executor ? PLATFORM : VIRTUAL;
+        return this;
+    }
+
+    public List<MessageBodyWriter<?>> getWriters() {
+        return this.writers;
+    }
+
+    public RestfulHttpHandler setWriters(List<MessageBodyWriter<?>> writers) {
+        this.writers = null == writers ? Collections.<MessageBodyWriter<?>>emptyList() : writers;
+        return this;
+    }
+
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    public RestfulHttpHandler setMaxConcurrency(int max) {
+        this.maxConcurrency = max;
+        limits.clear();
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange he) throws IOException {
+        // 异步处理中不关闭交换, 结果写入后再关闭
+        final AsyncExchange exchange = new AsyncExchange(he);
+        try {
+            super.handle(exchange);
+        } finally {
+            exchange.handled();
+        }
+    }
+
+    @Override
+    protected void execute(HTTP_METHOD method, HttpExchange he) throws IOException {
+        final RequestHelper request = HttpHandlerHelper.getRequestHelper(he);
+
+        final RouteMatch match = factory.match(request.getURI(), request.getMethod());
+        if (null == match) {
+            final String allow = factory.getAllowedMethods(request.getURI(), request.getMethod());
+            if (null != allow) {
+                // Method not allowed
+                he.getResponseHeaders().set("Allow", allow);
+                he.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+                LOGGER.fine(String.format("[REST] - '%s' 405 Method not allowed", request.getURI()));
+                return;
+            }
+            // Not found service
+            he.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+            LOGGER.fine(String.format("[REST] - '%s' 404 Not found", request.getURI()));
+            return;
+        }
+        final RestServiceHandler handler = match.getHandler();
+
+        if (!handler.acceptableMediaType(MIME_TYPE.JSON.name())) {
+            //TODO
+            //he.sendResponseHeaders(HttpURLConnection.HTTP_NOT_ACCEPTABLE, -1);
+            LOGGER.fine(String.format("[REST] - '%s' 404 Not found", request.getURI()));
+            //return;
+        }
+
+        final String contentType = he.getRequestHeaders().getFirst(EntityReader.CONTENT_TYPE);
+        if (!EntityReader.acceptable(contentType, match.getMethodPattern().getRequestTypes())) {
+            // Unsupported media type
+            he.sendResponseHeaders(EntityReader.HTTP_UNSUPPORTED_TYPE, -1);
+            LOGGER.fine(String.format("[REST] - '%s' 415 Unsupported media type '%s'", request.getURI(), contentType));
+            return;
+        }
+        final MethodPattern pattern = match.getMethodPattern();
+        final ResponseCache cache = pattern.getCache();
+        Object[] params = null;
+        ResponseCache.Key key = null;
+        if (null != cache) {
+            // 缓存命中时在当前线程送出, 不受并发上限的限制
+            params = arguments(he, match);
+            if (null == params) {
+                return;
+            }
+            key = cache.key(params);
+            final ResponseCache.Entry entry = null == key ? null : cache.get(key);
+            if (null != entry) {
+                send(he, entry);
+                return;
+            }
+        }
+        final ExecutorService virtual = executor;
+        if (null != virtual) {
+            // 参数的读取和资源方法的执行都在虚拟线程中进行
+            // 资源方法的执行不计时, 由虚拟线程中的等待和内侧的异步结果计时
+            suspend(he, pattern, dispatch(virtual, he, match, params, key), 0L);
+            return;
+        }
+        if (null == params) {
+            params = arguments(he, match);
+            if (null == params) {
+                return;
+            }
+        }
+        final Semaphore permit;
+        try {
+            // 不在线程池中等待空位
+            permit = acquire(pattern, false);
+        } catch (RejectedExecutionException ex) {
+            he.sendResponseHeaders(HttpURLConnection.HTTP_UNAVAILABLE, -1);
+            LOGGER.fine(String.format("[REST] - '%s' 503 %s", request.getURI(), ex.getMessage()));
+            return;
+        }
+        final Object result;
+        final RestAsyncResponse async;
+        try {
+            result = invoke(pattern, handler, params, key);
+            async = RestAsyncResponse.of(result, params);
+        } catch (RuntimeException | Error ex) {
+            release(permit, null);
+            throw ex;
+        }
+        release(permit, async);
+        if (null != async) {
+            suspend(he, pattern, async, asyncTimeout);
+            return;
+        }
+        respond(he, pattern, result);
+    }
+
+    /**
+     * 读取请求体和参数
+     *
+     * @return 参数数组, 请求不正确时送出400或413后返回null
+     */
+    private Object[] arguments(HttpExchange he, RouteMatch match) throws IOException {
+        try {
+            EntityReader.limit(he, maxEntitySize);
+            return factory.convertArguments(he, match);
+        } catch (EntityReader.EntityException ex) {
+            // 400 Bad request, 413 Request entity too large
+            he.sendResponseHeaders(ex.getStatus(), -1);
+            LOGGER.fine(String.format("[REST] - '%s' %d %s", he.getRequestURI(), ex.getStatus(), ex.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * 在执行器中读取参数并调用资源方法
+     * 资源方法的执行不计时, 与platform时相同, 只有空位的等待和异步的结果受asyncTimeout限制。
+     * 许可在同步的调用结束, 或异步的结果完成(或超时)时归还。
+     *
+     * @param converted 已读取的参数, 未读取时为null
+     * @param key 未命中的缓存的键, 不缓存时为null
+     */
+    private RestAsyncResponse dispatch(ExecutorService virtual, HttpExchange he, RouteMatch match,
+            Object[] converted, ResponseCache.Key key) {
+        final RestAsyncResponse async = new RestAsyncResponse();
+        try {
+            virtual.execute(() -> {
+                try {
+                    Object[] params = converted;
+                    if (async.isDone()) {
+                        return;
+                    }
+                    if (null == params) {
+                        EntityReader.limit(he, maxEntitySize);
+                        params = factory.convertArguments(he, match);
+                    }
+                    final MethodPattern pattern = match.getMethodPattern();
+                    final Semaphore permit = acquire(pattern, true);
+                    if (async.isDone()) {
+                        // 已送出响应时不调用
+                        release(permit, null);
+                        return;
+                    }
+                    final Object result;
+                    final RestAsyncResponse inner;
+                    try {
+                        result = invoke(pattern, match.getHandler(), params, key);
+                        inner = RestAsyncResponse.of(result, params);
+                    } catch (Throwable ex) {
+                        release(permit, null);
+                        throw ex;
+                    }
+                    // 同步的结果立即, 异步的结果在内侧完成(或超时)时归还
+                    release(permit, inner);
+                    if (null == inner) {
+                        async.resume(result);
+                        return;
+                    }
+                    inner.then((value, error) -> {
+                        if (null != error) {
+                            async.resume(error);
+                        } else {
+                            async.resume(value);
+                        }
+                    });
+                    inner.start(asyncTimeout);
+                } catch (Throwable ex) {
+                    async.resume(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            async.resume(ex);
+        }
+        return async;
+    }
+
+    /**
+     * 调用资源方法, 缓存未命中时保存可以缓存的结果
+     *
+     * @param key 未命中的缓存的键, 不缓存时为null
+     * @return 资源方法的结果或 {@link ResponseCache.Entry}
+     */
+    private Object invoke(MethodPattern pattern, RestServiceHandler handler, Object[] params, ResponseCache.Key key) {
+        final Object result = handler.invoke(params);
+        if (null != key && ResponseCache.isCacheable(result) && !isWritable(pattern, result)) {
+            return pattern.getCache().put(key, result, compression ? compressMinSize : -1, compressLevel);
+        }
+        return result;
+    }
+
+    /**
+     * 是否由MessageBodyWriter写出
+     */
+    private boolean isWritable(MethodPattern pattern, Object result) {
+        if (writers.isEmpty()) {
+            return false;
+        }
+        final MediaType mediaType = MediaType.valueOf(entityType(pattern, MediaType.APPLICATION_JSON));
+        final Method method = pattern.getMethod();
+        return null != writer(result, method.getGenericReturnType(), method.getAnnotations(), mediaType);
+    }
+
+    /**
+     * 取得路由的执行许可
+     *
+     * @param wait 是否在asyncTimeout内等待空位 (只在虚拟线程中等待)
+     * @return 许可, 不限制时为null
+     * @throws RejectedExecutionException 没有空位时
+     */
+    private Semaphore acquire(MethodPattern pattern, boolean wait) {
+        final int max = maxConcurrency;
+        if (max <= 0) {
+            return null;
+        }
+        final Semaphore limit = limits.computeIfAbsent(pattern.getRoute(), r -> new Semaphore(max));
+        final boolean acquired;
+        try {
+            acquired = wait ? limit.tryAcquire(asyncTimeout > 0L ? asyncTimeout : Long.MAX_VALUE, TimeUnit.MILLISECONDS)
+                    : limit.tryAcquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted", ex);
+        }
+        if (!acquired) {
+            throw new RejectedExecutionException(String.format("Too many concurrent requests (max %d)", max));
+        }
+        return limit;
+    }
+
+    /**
+     * 归还许可, 异步的结果在完成或超时后归还
+     */
+    private static void release(Semaphore permit, RestAsyncResponse async) {
+        if (null == permit) {
+            return;
+        }
+        if (null == async) {
+            permit.release();
+        } else {
+            async.future().whenComplete((value, error) -> permit.release());
+        }
+    }
+
+    /**
+     * 在CompletionStage或AsyncResponse完成的线程写入响应
+     *
+     * @param timeout 没有调用setTimeout时的超时毫秒数, 0以下时不超时
+     */
+    private void suspend(HttpExchange he, MethodPattern pattern, RestAsyncResponse async, long timeout) throws IOException {
+        final AsyncExchange exchange = he instanceof AsyncExchange ? (AsyncExchange) he : null;
+        if (null != exchange) {
+            exchange.suspend();
+        }
+        async.then((value, error) -> {
+            try {
+                complete(he, pattern, async, value, error);
+            } catch (IOException ex) {
+                LOGGER.fine(String.format("[REST] - '%s' Asynchronous response error: %s", he.getRequestURI(), ex.getMessage()));
+            } finally {
+                if (null != exchange) {
+                    exchange.complete();
+                }
+            }
+        });
+        async.start(timeout);
+    }
+
+    private void complete(HttpExchange he, MethodPattern pattern, RestAsyncResponse async, Object value, Throwable error) throws IOException {
+        if (null == error) {
+            respond(he, pattern, value);
+            return;
+        }
+        final Throwable cause = RestAsyncResponse.unwrap(error);
+        final int status;
+        if (cause instanceof EntityReader.EntityException) {
+            // 400 Bad request, 413 Request entity too large
+            status = ((EntityReader.EntityException) cause).getStatus();
+            LOGGER.fine(String.format("[REST] - '%s' %d %s", he.getRequestURI(), status, cause.getMessage()));
+        } else if (cause instanceof CancellationException || cause instanceof TimeoutException
+                || cause instanceof RejectedExecutionException) {
+            // Service unavailable
+            status = HttpURLConnection.HTTP_UNAVAILABLE;
+            if (null != async.getRetryAfter()) {
+                he.getResponseHeaders().set("Retry-After", async.getRetryAfter());
+            }
+            LOGGER.fine(String.format("[REST] - '%s' 503 %s", he.getRequestURI(),
+                    cause instanceof CancellationException ? "Cancelled" : cause.getMessage()));
+        } else if (cause instanceof WebApplicationException && null != ((WebApplicationException) cause).getResponse()) {
+            status = ((WebApplicationException) cause).getResponse().getStatus();
+        } else {
+            status = HttpURLConnection.HTTP_INTERNAL_ERROR;
+            LOGGER.log(Level.WARNING, String.format("[REST] - '%s' 500 %s", he.getRequestURI(), cause.getMessage()), cause);
+        }
+        he.sendResponseHeaders(status, -1);
+    }
+
+    private void respond(HttpExchange he, MethodPattern pattern, Object result) throws IOException {
+        if (result instanceof ResponseCache.Entry) {
+            send(he, (ResponseCache.Entry) result);
+            return;
+        }
+        int status = HttpURLConnection.HTTP_OK;
+        Object entity = result;
+        Type genericType = pattern.getMethod().getGenericReturnType();
+        Annotation[] annotations = null;
+        if (result instanceof Response) {
+            final Response response = (Response) result;
+            status = response.getStatus();
+            entity = response.getEntity();
+            genericType = null == entity ? null : entity.getClass();
+            if (response instanceof RestResponse) {
+                annotations = ((RestResponse) response).getAnnotations();
+            }
+            EntityWriter.headers(response.getMetadata(), he.getResponseHeaders());
+            // 资源方法指定的ETag(版本)一致时不写出实体
+            final String version = he.getResponseHeaders().getFirst(EntityTags.ETAG);
+            if (etag && null != version && EntityTags.isConditional(he, status)
+                    && EntityTags.notModified(he, version)) {
+                return;
+            }
+            if (null == entity) {
+                he.sendResponseHeaders(status, -1);
+                return;
+            }
+        }
+        if (entity instanceof GenericEntity) {
+            genericType = ((GenericEntity<?>) entity).getType();
+            entity = ((GenericEntity<?>) entity).getEntity();
+        }
+        String contentType = he.getResponseHeaders().getFirst(EntityReader.CONTENT_TYPE);
+        MessageBodyWriter<Object> writer = null;
+        MediaType mediaType = null;
+        if (!writers.isEmpty() && null != entity) {
+            mediaType = MediaType.valueOf(null != contentType ? contentType : entityType(pattern, MediaType.APPLICATION_JSON));
+            if (null == annotations) {
+                annotations = pattern.getMethod().getAnnotations();
+            }
+            writer = writer(entity, genericType, annotations, mediaType);
+        }
+        if (null == writer && FileTransfer.isFile(entity)) {
+            // 文件按固定长度零拷贝送出, 不压缩
+            FileTransfer.send(he, status, entity, entityType(pattern, null));
+            return;
+        }
+        // Stream, Iterator按要素逐个写出
+        final Iterator<?> elements = JsonWriter.elements(entity);
+        final boolean lines = null != elements && acceptLines(he, pattern);
+        final boolean passThrough = EntityWriter.isPassThrough(entity);
+        if (null == contentType) {
+            if (null != writer) {
+                contentType = mediaType.toString();
+            } else if (entity instanceof StreamingOutput || passThrough) {
+                contentType = entityType(pattern, MediaType.APPLICATION_OCTET_STREAM);
+            } else if (lines) {
+                contentType = NDJSON;
+            }
+            if (null != contentType) {
+                he.getResponseHeaders().set(EntityReader.CONTENT_TYPE, contentType);
+            } else {
+                final ResponseHeaderHelper header = HttpHandlerHelper.getHeaderHelper(he);
+                header.setContentType(MIME_TYPE.JSON);
+            }
+        }
+        // 按UTF-8直接写入响应体, 不生成整个JSON文字列
+        final ResponseOutputStream out = new ResponseOutputStream(he, status, bufferSize);
+        if (etag && EntityTags.isConditional(he, status)) {
+            out.entityTag();
+        }
+        if (compression && null == he.getResponseHeaders().getFirst(Compression.CONTENT_ENCODING)) {
+            out.compress(Compression.negotiate(he.getRequestHeaders().getFirst(Compression.ACCEPT_ENCODING)),
+                    compressMinSize, compressLevel);
+        }
+        try {
+            if (null != writer) {
+                final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+                writer.writeTo(entity, entity.getClass(), genericType, annotations, mediaType, headers, out);
+                if (!headers.isEmpty() && !out.isCommitted()) {
+                    EntityWriter.headers(headers, he.getResponseHeaders());
+                }
+            } else if (entity instanceof StreamingOutput) {
+                ((StreamingOutput) entity).write(out.streaming());
+            } else if (passThrough) {
+                // 不经过JSON变换, 长度已知时按固定长度送出
+                out.contentLength(EntityWriter.length(entity));
+                EntityWriter.write(entity, out);
+            } else if (null != elements) {
+                JsonWriter.writeStream(elements, out.streaming(), lines);
+            } else if (entity instanceof String && null != contentType && !EntityWriter.isJson(contentType)) {
+                // text/plain等按文字列写出
+                out.write(((String) entity).getBytes(EntityReader.charset(contentType)));
+            } else {
+                JsonWriter.write(entity, out);
+            }
+            out.close();
+        } finally {
+            out.release();
+            if (entity instanceof BaseStream) {
+                ((BaseStream<?, ?>) entity).close();
+            }
+        }
+    }
+
+    /**
+     * 送出缓存的响应体, 按"Accept-Encoding"送出gzip或deflate压缩后的内容
+     */
+    private void send(HttpExchange he, ResponseCache.Entry entry) throws IOException {
+        final ResponseHeaderHelper header = HttpHandlerHelper.getHeaderHelper(he);
+        header.setContentType(MIME_TYPE.JSON);
+        byte[] body = entry.body;
+        String tag = entry.etag;
+        if (compression && entry.compressed()) {
+            // 未压缩的响应也随"Accept-Encoding"变化
+            he.getResponseHeaders().add("Vary", Compression.ACCEPT_ENCODING);
+            final String encoding = Compression.negotiate(he.getRequestHeaders().getFirst(Compression.ACCEPT_ENCODING));
+            if (Compression.GZIP.equals(encoding)) {
+                he.getResponseHeaders().set(Compression.CONTENT_ENCODING, Compression.GZIP);
+                body = entry.gzip;
+                tag = entry.gzipEtag;
+            } else if (Compression.DEFLATE.equals(encoding)) {
+                he.getResponseHeaders().set(Compression.CONTENT_ENCODING, Compression.DEFLATE);
+                body = entry.deflate;
+                tag = entry.deflateEtag;
+            }
+        }
+        if (etag && EntityTags.isConditional(he, HttpURLConnection.HTTP_OK) && EntityTags.notModified(he, tag)) {
+            return;
+        }
+        he.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = he.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private MessageBodyWriter<Object> writer(Object entity, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        for (MessageBodyWriter<?> writer : writers) {
+            if (writer.isWriteable(entity.getClass(), genericType, annotations, mediaType)) {
+                return (MessageBodyWriter<Object>) writer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * "Accept"或@Produces为NDJSON时按行写出
+     */
+    private static boolean acceptLines(HttpExchange he, MethodPattern pattern) {
+        final String accept = he.getRequestHeaders().getFirst("Accept");
+        if (null != accept) {
+            if (accept.contains(NDJSON)) {
+                return true;
+            }
+            if (accept.contains(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        final String[] produces = pattern.getMediaTypes();
+        return produces.length == 1 && NDJSON.equals(produces[0]);
+    }
+
+    /**
+     * @return 方法或类的@Produces的第一个类型, 没有时为默认值(不使用路由默认的"text/html")
+     */
+    private static String entityType(MethodPattern pattern, String defaultType) {
+        final Method method = pattern.getMethod();
+        Produces produces = method.getAnnotation(Produces.class);
+        if (null == produces) {
+            produces = method.getDeclaringClass().getAnnotation(Produces.class);
+        }
+        if (null != produces && produces.value().length > 0 && produces.value()[0].indexOf('*') < 0) {
+            return produces.value()[0];
+        }
+        return defaultType;
+    }
+
+}
@@ -0,0 +1,41 @@
+package net.tiny.ws.rs;
+
+/**
+ * 路由的查找结果
+ * 匹配的MethodPattern和按方法参数下标排列的URI解析值。
+ * 参数数组在绑定时直接变换成方法的参数，不另外生成Map和数组。
+ */
+public final class RouteMatch {
+
+    private final MethodPattern methodPattern;
+    private final Object[] arguments;
+
+    RouteMatch(final MethodPattern methodPattern, final Object[] arguments) {
+        this.methodPattern = methodPattern;
+        this.arguments = arguments;
+    }
+
+    public RestServiceHandler getHandler() {
+        return methodPattern;
+    }
+
+    MethodPattern getMethodPattern() {
+        return methodPattern;
+    }
+
+    Object[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * 复制参数数组(缓存的结果在绑定时不被改写)
+     */
+    RouteMatch copy() {
+        return new RouteMatch(methodPattern, arguments.clone());
+    }
+
+    @Override
+    public String toString() {
+        return methodPattern.getPattern();
+    }
+}
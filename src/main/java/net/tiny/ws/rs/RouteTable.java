@@ -0,0 +1,154 @@
+package net.tiny.ws.rs;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.WebApplicationException;
+
+/**
+ * 路由表的快照
+ * 生成后不再变更，由 RestServiceFactory 通过volatile引用发布。
+ * 请求线程不加锁直接读取，重新载入时另外生成新的快照后整体替换。
+ * 可选的(HTTP方法, URI) → (MethodPattern, 参数数组)缓存也属于快照，随路由表一起替换，
+ * 缓存命中时跳过路由树的匹配和URL解码。
+ */
+final class RouteTable {
+
+    static final RouteTable EMPTY = new RouteTable(Collections.<RestServiceWrapper>emptyList(), new RouteTree(), 0);
+
+    private final List<RestServiceWrapper> services;
+    private final RouteTree router;
+    /** 解析结果的缓存, 无效时为null */
+    private final LruCache<Key, RouteMatch> cache;
+
+    private RouteTable(final List<RestServiceWrapper> services, final RouteTree router, final int cacheSize) {
+        this.services = services;
+        this.router = router;
+        this.cache = cacheSize > 0 ? new LruCache<Key, RouteMatch>(cacheSize) : null;
+    }
+
+    /**
+     * 由RestService生成路由表
+     *
+     * @param wrappers RestService
+     * @param cacheSize 解析结果缓存的容量, 0时不缓存
+     * @return
+     */
+    static RouteTable build(final List<RestServiceWrapper> wrappers, final int cacheSize) {
+        final List<RestServiceWrapper> services = new ArrayList<>(wrappers);
+        final RouteTree tree = new RouteTree();
+        for (RestServiceWrapper wrapper : services) {
+            for (MethodPattern methodPattern : wrapper.getMethodPatterns()) {
+                tree.add(methodPattern);
+            }
+        }
+        if (services.isEmpty()) {
+            throw new WebApplicationException("One REST service also could not be found.");
+        }
+        // 对配置项进行排序，方便后面的查找
+        Collections.sort(services);
+        //检查是否有重复的url
+        checkDuplicateUrl(services);
+        return new RouteTable(Collections.unmodifiableList(services), tree, cacheSize);
+    }
+
+    /**
+     * 生成共用路由、更换缓存的路由表
+     */
+    RouteTable withCache(final int cacheSize) {
+        return new RouteTable(services, router, cacheSize);
+    }
+
+    List<RestServiceWrapper> getServices() {
+        return services;
+    }
+
+    LruCache<?, ?> getCache() {
+        return cache;
+    }
+
+    MethodPattern find(final String uri, final String requestMethod, final Map<String, Object> args)
+            throws UnsupportedEncodingException {
+        return router.find(uri, requestMethod, args);
+    }
+
+    RouteMatch match(final String uri, final String requestMethod) throws UnsupportedEncodingException {
+        if (null == cache || null == uri || null == requestMethod) {
+            return router.match(uri, requestMethod);
+        }
+        final Key key = new Key(requestMethod, uri);
+        final RouteMatch cached = cache.get(key);
+        if (null != cached) {
+            return cached.copy();
+        }
+        final RouteMatch match = router.match(uri, requestMethod);
+        if (null != match) {
+            // 只缓存找到的结果，不让不存在的URI占用缓存
+            cache.put(key, match.copy());
+        }
+        return match;
+    }
+
+    String allowedMethods(final String uri, final String requestMethod) {
+        return router.allowedMethods(uri, requestMethod);
+    }
+
+    /**
+     * 检查是否有重复的url定义
+     */
+    private static void checkDuplicateUrl(final List<RestServiceWrapper> services) {
+        RestServiceWrapper prePattern = null;
+        final Iterator<RestServiceWrapper> iterator = services.iterator();
+        while (iterator.hasNext()) {
+            final RestServiceWrapper pattern = iterator.next();
+            if (pattern.compareTo(prePattern) <= 0) {
+                throw new WebApplicationException(String.format("Duplicate url : '%s'", pattern.getPath()));
+            }
+            prePattern = pattern;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName());
+        sb.append(String.format(" - [%1$d] %2$s", services.size(), router));
+        if (null != cache) {
+            sb.append(' ').append(cache);
+        }
+        return sb.toString();
+    }
+
+    /** 缓存的键 (HTTP方法, URI) */
+    static final class Key {
+        final String method;
+        final String uri;
+        private final int hash;
+
+        Key(final String method, final String uri) {
+            this.method = method;
+            this.uri = uri;
+            this.hash = 31 * method.hashCode() + uri.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash && uri.equals(other.uri) && method.equals(other.method);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package net.tiny.ws.rs;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST 路由树
+ * 在setup时把所有MethodPattern按URI节编译成基数树(定型文字节点, {var}节点, {var : regex}节点)，
+ * 查找时只需沿URI走一遍即可找到候选的MethodPattern，与登录的路由数量无关。
+ * 定型文字节点按URI区域的哈希值查找，不生成子文字列。
+ * 各节点记录其下登录的HTTP方法(位掩码)，查找时只走含有请求方法的分支，
+ * 终端节点按HTTP方法分别保存候选，并预先生成405用的"Allow"头。
+ */
+class RouteTree {
+
+    /** 按下标区分的HTTP方法, 其他方法使用末尾的下标 */
+    static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH"};
+    static final int OTHER = METHODS.length;
+    /** 没有指定HTTP方法的MethodPattern接受所有方法 */
+    static final int ALL = (1 << (OTHER + 1)) - 1;
+
+    private final Node root = new Node(null);
+    private int size = 0;
+
+    /**
+     * 登录一个MethodPattern
+     *
+     * @param methodPattern
+     */
+    void add(final MethodPattern methodPattern) {
+        final String httpMethod = methodPattern.getHttpMethod();
+        final int bits = null == httpMethod ? ALL : (1 << indexOf(httpMethod));
+        Node node = root;
+        node.methods |= bits;
+        for (PatternSegment segment : methodPattern.getSegments()) {
+            if (segment instanceof PatternSegment.Literal && ((PatternSegment.Literal)segment).text.isEmpty()) {
+                continue;
+            }
+            node = node.child(segment);
+            node.methods |= bits;
+        }
+        node.add(methodPattern, bits);
+        size++;
+    }
+
+    /**
+     * 取得HTTP方法的下标
+     */
+    static int indexOf(final String httpMethod) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(httpMethod)) {
+                return i;
+            }
+        }
+        return OTHER;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 沿URI查找匹配的MethodPattern，并把解析的参数放入Map里
+     *
+     * @param uri
+     * @param requestMethod
+     * @param args
+     * @return 匹配的MethodPattern, 没找到时为null
+     * @throws UnsupportedEncodingException
+     */
+    MethodPattern find(final String uri, final String requestMethod, final Map<String, Object> args)
+            throws UnsupportedEncodingException {
+        final RouteMatch match = find(uri, requestMethod, args, false);
+        return null == match ? null : match.getMethodPattern();
+    }
+
+    /**
+     * 沿URI查找匹配的MethodPattern，解析的参数按方法参数下标写入参数数组
+     *
+     * @param uri
+     * @param requestMethod
+     * @return 查找结果, 没找到时为null
+     * @throws UnsupportedEncodingException
+     */
+    RouteMatch match(final String uri, final String requestMethod) throws UnsupportedEncodingException {
+        return find(uri, requestMethod, null, true);
+    }
+
+    private RouteMatch find(final String uri, final String requestMethod, final Map<String, Object> args,
+            final boolean indexed) throws UnsupportedEncodingException {
+        if (uri == null || uri.isEmpty()) {
+            return null;
+        }
+        final int index = indexOf(requestMethod);
+        if ((root.methods & (1 << index)) == 0) {
+            return null;
+        }
+        int end = uri.indexOf('?');
+        if (end < 0) {
+            end = uri.length();
+        }
+        return find(root, uri, 0, end, index, requestMethod, args, indexed);
+    }
+
+    /**
+     * 取得URI路径只在其他HTTP方法下登录时的"Allow"头
+     * 该方法已登录(参数或Query不匹配)时为null, 按404处理
+     *
+     * @param uri
+     * @param requestMethod 请求的HTTP方法
+     * @return "GET, POST"等, 路径没有登录或该方法已登录时为null
+     */
+    String allowedMethods(final String uri, final String requestMethod) {
+        if (uri == null || uri.isEmpty()) {
+            return null;
+        }
+        int end = uri.indexOf('?');
+        if (end < 0) {
+            end = uri.length();
+        }
+        final Node node = terminal(root, uri, 0, end);
+        if (null == node || (node.terminal & (1 << indexOf(requestMethod))) != 0) {
+            return null;
+        }
+        return node.allow;
+    }
+
+    private RouteMatch find(final Node node, final String uri, int pos, final int end, final int index,
+            final String requestMethod, final Map<String, Object> args, final boolean indexed)
+            throws UnsupportedEncodingException {
+        while (pos < end && uri.charAt(pos) == '/') {
+            pos++;
+        }
+        if (pos >= end) {
+            // URI已走完，确认终端节点上该方法的候选
+            final List<MethodPattern> routes = node.routes[index];
+            if (null == routes) {
+                return null;
+            }
+            for (MethodPattern methodPattern : routes) {
+                final Object[] slots = indexed ? methodPattern.newSlots() : null;
+                if (methodPattern.validatePattern(uri, requestMethod, slots, args)) {
+                    return new RouteMatch(methodPattern, slots);
+                }
+                if (null != args) {
+                    args.clear();
+                }
+            }
+            return null;
+        }
+        int next = UriCursor.indexOf(uri, '/', pos, end);
+        if (next < 0) {
+            next = end;
+        }
+        // 含”path;name=value“时只用';'前的文字查找
+        int keyEnd = UriCursor.indexOf(uri, ';', pos, next);
+        if (keyEnd < 0) {
+            keyEnd = next;
+        }
+        final int bit = 1 << index;
+        RouteMatch found;
+        final Node literal = node.literals.get(uri, pos, keyEnd);
+        if (null != literal && (literal.methods & bit) != 0) {
+            found = find(literal, uri, next, end, index, requestMethod, args, indexed);
+            if (null != found) {
+                return found;
+            }
+        }
+        if (!node.regexes.isEmpty()) {
+            for (Node regex : node.regexes.values()) {
+                if ((regex.methods & bit) != 0 && regex.constraint.matches(uri, pos, next)) {
+                    found = find(regex, uri, next, end, index, requestMethod, args, indexed);
+                    if (null != found) {
+                        return found;
+                    }
+                }
+            }
+        }
+        if (null != node.variable && (node.variable.methods & bit) != 0) {
+            return find(node.variable, uri, next, end, index, requestMethod, args, indexed);
+        }
+        return null;
+    }
+
+    /**
+     * 不区分HTTP方法，取得URI路径对应的终端节点
+     */
+    private Node terminal(final Node node, final String uri, int pos, final int end) {
+        while (pos < end && uri.charAt(pos) == '/') {
+            pos++;
+        }
+        if (pos >= end) {
+            return null == node.allow ? null : node;
+        }
+        int next = UriCursor.indexOf(uri, '/', pos, end);
+        if (next < 0) {
+            next = end;
+        }
+        int keyEnd = UriCursor.indexOf(uri, ';', pos, next);
+        if (keyEnd < 0) {
+            keyEnd = next;
+        }
+        Node found;
+        final Node literal = node.literals.get(uri, pos, keyEnd);
+        if (null != literal) {
+            found = terminal(literal, uri, next, end);
+            if (null != found) {
+                return found;
+            }
+        }
+        for (Node regex : node.regexes.values()) {
+            if (regex.constraint.matches(uri, pos, next)) {
+                found = terminal(regex, uri, next, end);
+                if (null != found) {
+                    return found;
+                }
+            }
+        }
+        if (null != node.variable) {
+            return terminal(node.variable, uri, next, end);
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName());
+        sb.append(String.format(" - [%1$d]", size));
+        return sb.toString();
+    }
+
+    static final class Node {
+        final LiteralTable literals = new LiteralTable();
+        final Map<String, Node> regexes = new LinkedHashMap<>();
+        /** 按HTTP方法下标分开的候选 */
+        @SuppressWarnings("unchecked")
+        final List<MethodPattern>[] routes = new List[OTHER + 1];
+        final Constraint constraint;
+        Node variable;
+        /** 本节点及其子节点登录的HTTP方法 */
+        int methods = 0;
+        /** 本节点登录的HTTP方法 */
+        int terminal = 0;
+        /** 预先生成的"Allow"头 */
+        String allow;
+
+        Node(final Constraint constraint) {
+            this.constraint = constraint;
+        }
+
+        void add(final MethodPattern methodPattern, final int bits) {
+            for (int i = 0; i <= OTHER; i++) {
+                if ((bits & (1 << i)) != 0) {
+                    if (null == routes[i]) {
+                        routes[i] = new ArrayList<>();
+                    }
+                    routes[i].add(methodPattern);
+                }
+            }
+            terminal |= bits;
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < METHODS.length; i++) {
+                if ((terminal & (1 << i)) != 0) {
+                    if (sb.length() > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append(METHODS[i]);
+                }
+            }
+            if (null != routes[OTHER]) {
+                // 其他的HTTP方法
+                for (MethodPattern route : routes[OTHER]) {
+                    final String httpMethod = route.getHttpMethod();
+                    if (null != httpMethod && indexOf(httpMethod) == OTHER && sb.indexOf(httpMethod) < 0) {
+                        if (sb.length() > 0) {
+                            sb.append(", ");
+                        }
+                        sb.append(httpMethod);
+                    }
+                }
+            }
+            allow = sb.toString();
+        }
+
+        /**
+         * 取得(或生成)pattern节对应的子节点
+         *  "name", "name;{a};{b}" 为定型文字节点
+         *  "{id}" 为变量节点
+         *  "{id : \\d+}" 为正则节点
+         */
+        Node child(final PatternSegment segment) {
+            if (segment instanceof PatternSegment.Capture) {
+                if (null == variable) {
+                    variable = new Node(null);
+                }
+                return variable;
+            }
+            if (segment instanceof PatternSegment.RegexCapture) {
+                final Constraint regex = ((PatternSegment.RegexCapture)segment).regex;
+                Node node = regexes.get(regex.pattern());
+                if (null == node) {
+                    node = new Node(regex);
+                    regexes.put(regex.pattern(), node);
+                }
+                return node;
+            }
+            final String key;
+            if (segment instanceof PatternSegment.MatrixGroup) {
+                key = ((PatternSegment.MatrixGroup)segment).text;
+            } else {
+                key = ((PatternSegment.Literal)segment).text;
+            }
+            Node node = literals.get(key);
+            if (null == node) {
+                node = new Node(null);
+                literals.put(key, node);
+            }
+            return node;
+        }
+    }
+
+    /**
+     * 定型文字子节点表(开放地址法)
+     * 哈希值与 String#hashCode 相同，可直接按URI区域计算。
+     */
+    static final class LiteralTable {
+        private String[] keys = new String[8];
+        private int[] hashes = new int[8];
+        private Node[] nodes = new Node[8];
+        private int size = 0;
+
+        Node get(final String key) {
+            return get(key, 0, key.length());
+        }
+
+        Node get(final String uri, final int start, final int end) {
+            final int hash = hash(uri, start, end);
+            final int mask = keys.length - 1;
+            int index = hash & mask;
+            while (null != keys[index]) {
+                if (hashes[index] == hash && UriCursor.regionMatches(uri, start, end, keys[index], false)) {
+                    return nodes[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        void put(final String key, final Node node) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            insert(key, hash(key, 0, key.length()), node);
+            size++;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void insert(final String key, final int hash, final Node node) {
+            final int mask = keys.length - 1;
+            int index = hash & mask;
+            while (null != keys[index]) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            hashes[index] = hash;
+            nodes[index] = node;
+        }
+
+        private void resize(final int capacity) {
+            final String[] oldKeys = keys;
+            final int[] oldHashes = hashes;
+            final Node[] oldNodes = nodes;
+            keys = new String[capacity];
+            hashes = new int[capacity];
+            nodes = new Node[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (null != oldKeys[i]) {
+                    insert(oldKeys[i], oldHashes[i], oldNodes[i]);
+                }
+            }
+        }
+
+        private static int hash(final String text, final int start, final int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + text.charAt(i);
+            }
+            // 分散低位
+            return h ^ (h >>> 16);
+        }
+    }
+}
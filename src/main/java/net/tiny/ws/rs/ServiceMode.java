@@ -0,0 +1,30 @@
+package net.tiny.ws.rs;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import net.tiny.ws.rs.Constants.Mode;
+
+/**
+ * RestService实体的生成模式
+ * <pre>
+ * &#64;Path("calc")
+ * &#64;ServiceMode(value = Mode.pool, size = 8)
+ * public class SampleService { ... }
+ * </pre>
+ * 没有该注解时按 RestApplication 的设置，都没有时为 {@link Mode#singleton}。
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ServiceMode {
+
+    /** 生成模式 */
+    Mode value() default Mode.singleton;
+
+    /** pool模式的实体数上限 */
+    int size() default ServiceProvider.DEFAULT_POOL_SIZE;
+}
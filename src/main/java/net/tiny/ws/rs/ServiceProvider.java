@@ -0,0 +1,251 @@
+package net.tiny.ws.rs;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import net.tiny.ws.rs.Constants.Mode;
+
+/**
+ * RestService实体的提供者
+ * 按生成模式(instance/singleton/thread/pool)在请求时借出实体，请求结束后归还。
+ * 实体的构造函数在生成提供者时取得一次，请求时不再查找。
+ */
+abstract class ServiceProvider {
+
+    private static Logger LOGGER = Logger.getLogger(ServiceProvider.class.getName());
+
+    static final int DEFAULT_POOL_SIZE = 16;
+    /** pool模式下等待归还的最长时间(毫秒) */
+    static final long POOL_TIMEOUT = 30000L;
+
+    final Mode mode;
+
+    ServiceProvider(final Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * 借出实体
+     */
+    abstract Object acquire() throws Exception;
+
+    /**
+     * 归还实体
+     */
+    void release(final Object target) {
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 按"pool:8"形式的设置生成提供者
+     *
+     * @param serviceClass
+     * @param target 已生成的实体, singleton模式时使用
+     * @param spec "instance", "singleton", "thread", "pool", "pool:8"
+     * @return
+     */
+    static ServiceProvider create(final Class<?> serviceClass, final Object target, final String spec) {
+        final String value = spec.trim();
+        final int pos = value.indexOf(':');
+        final Mode mode = Mode.valueOf(pos < 0 ? value : value.substring(0, pos).trim());
+        final int size = pos < 0 ? DEFAULT_POOL_SIZE : Integer.parseInt(value.substring(pos + 1).trim());
+        return create(serviceClass, target, mode, size);
+    }
+
+    static ServiceProvider create(final Class<?> serviceClass, final Object target, final Mode mode, final int size) {
+        if (mode == Mode.singleton) {
+            return new Singleton(null != target ? target : newInstance(constructor(serviceClass)));
+        }
+        final Constructor<?> constructor;
+        try {
+            constructor = constructor(serviceClass);
+        } catch (IllegalArgumentException ex) {
+            if (null == target) {
+                // 请求时才报错
+                return new Unavailable(mode, ex);
+            }
+            LOGGER.warning(String.format("[REST] - %s, use singleton mode.", ex.getMessage()));
+            return new Singleton(target);
+        }
+        switch (mode) {
+        case thread:
+            return new PerThread(constructor);
+        case pool:
+            return new Pool(constructor, size);
+        default:
+            return new Instance(constructor);
+        }
+    }
+
+    private static Constructor<?> constructor(final Class<?> serviceClass) {
+        try {
+            final Constructor<?> constructor = serviceClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | RuntimeException ex) {
+            throw new IllegalArgumentException(
+                    String.format("'%s' has not an accessible default constructor", serviceClass.getName()), ex);
+        }
+    }
+
+    static Object newInstance(final Constructor<?> constructor) {
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mode.name();
+    }
+
+    /** 每次请求生成新实体 */
+    static final class Instance extends ServiceProvider {
+        private final Constructor<?> constructor;
+
+        Instance(final Constructor<?> constructor) {
+            super(Mode.instance);
+            this.constructor = constructor;
+        }
+
+        @Override
+        Object acquire() {
+            return newInstance(constructor);
+        }
+    }
+
+    /** 所有请求共用一个实体 */
+    static final class Singleton extends ServiceProvider {
+        private final Object target;
+
+        Singleton(final Object target) {
+            super(Mode.singleton);
+            this.target = target;
+        }
+
+        @Override
+        Object acquire() {
+            return target;
+        }
+    }
+
+    /** 不能生成实体 */
+    static final class Unavailable extends ServiceProvider {
+        private final RuntimeException cause;
+
+        Unavailable(final Mode mode, final RuntimeException cause) {
+            super(mode);
+            this.cause = cause;
+        }
+
+        @Override
+        Object acquire() {
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    /** 每个线程一个实体 */
+    static final class PerThread extends ServiceProvider {
+        private final ThreadLocal<Object> targets;
+
+        PerThread(final Constructor<?> constructor) {
+            super(Mode.thread);
+            this.targets = new ThreadLocal<Object>() {
+                @Override
+                protected Object initialValue() {
+                    return newInstance(constructor);
+                }
+            };
+        }
+
+        @Override
+        Object acquire() {
+            return targets.get();
+        }
+    }
+
+    /**
+     * 有上限的实体池
+     * 空闲的实体不足且未达上限时生成新实体，达到上限后等待其他请求归还。
+     */
+    static final class Pool extends ServiceProvider {
+        private final Constructor<?> constructor;
+        private final BlockingQueue<Object> idle;
+        private final AtomicInteger created = new AtomicInteger();
+        private final int size;
+
+        Pool(final Constructor<?> constructor, final int size) {
+            super(Mode.pool);
+            if (size <= 0) {
+                throw new IllegalArgumentException(String.format("Invalid pool size %1$d", size));
+            }
+            this.constructor = constructor;
+            this.size = size;
+            this.idle = new ArrayBlockingQueue<>(size);
+        }
+
+        @Override
+        Object acquire() throws InterruptedException {
+            Object target = idle.poll();
+            if (null != target) {
+                return target;
+            }
+            int count;
+            while ((count = created.get()) < size) {
+                if (created.compareAndSet(count, count + 1)) {
+                    try {
+                        return newInstance(constructor);
+                    } catch (RuntimeException | Error ex) {
+                        created.decrementAndGet();
+                        throw ex;
+                    }
+                }
+            }
+            target = idle.poll(POOL_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (null == target) {
+                throw new IllegalStateException(String.format("'%1$s' pool exhausted (%2$d)",
+                        constructor.getDeclaringClass().getName(), size));
+            }
+            return target;
+        }
+
+        @Override
+        void release(final Object target) {
+            if (null != target) {
+                idle.offer(target);
+            }
+        }
+
+        int created() {
+            return created.get();
+        }
+
+        int idle() {
+            return idle.size();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%1$s:%2$d", mode.name(), size);
+        }
+    }
+}
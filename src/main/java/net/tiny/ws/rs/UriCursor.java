@@ -0,0 +1,193 @@
+package net.tiny.ws.rs;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * URI的'/'分节游标
+ * 按下标遍历URI各节并直接比较区域(regionMatches)，不生成分割后的数组和文字列。
+ * 分节规则与 String#split("/") 相同(末尾的空节被忽略)。
+ * 同时作为当前区域的 CharSequence 视图提供给正则匹配器。
+ * 匹配器由编译后的约束({@link Constraint})按线程保存，路由替换后随约束一起释放，游标不保存。
+ */
+final class UriCursor implements CharSequence {
+
+    private static final ThreadLocal<UriCursor> CURSORS = new ThreadLocal<UriCursor>() {
+        @Override
+        protected UriCursor initialValue() {
+            return new UriCursor();
+        }
+    };
+
+    private String uri = "";
+    /** 路径部分的终点(不含末尾的'/') */
+    private int limit;
+    /** '?'之后的Query开始位置，没有时为-1 */
+    private int query;
+    private int start;
+    private int end;
+    private boolean started;
+    /** CharSequence视图的区域 */
+    private String regionText = "";
+    private int regionStart;
+    private int regionEnd;
+
+    /**
+     * 取得当前线程的游标
+     */
+    static UriCursor get() {
+        return CURSORS.get();
+    }
+
+    /**
+     * 以'?'之前的路径部分为对象重置游标
+     */
+    UriCursor reset(final String uri) {
+        final int pos = uri.indexOf('?');
+        reset(uri, pos < 0 ? uri.length() : pos);
+        this.query = pos < 0 ? -1 : pos + 1;
+        return this;
+    }
+
+    /**
+     * 以[0, limit)为对象重置游标
+     */
+    UriCursor reset(final String uri, final int limit) {
+        int last = limit;
+        while (last > 0 && uri.charAt(last - 1) == '/') {
+            last--;
+        }
+        this.uri = uri;
+        this.limit = (last == 0 && !uri.isEmpty()) ? -1 : last;
+        this.query = -1;
+        this.start = 0;
+        this.end = -1;
+        this.started = false;
+        return this;
+    }
+
+    /**
+     * 移到下一节
+     *
+     * @return 没有下一节时为false
+     */
+    boolean next() {
+        if (!started) {
+            started = true;
+            if (limit < 0) {
+                return false;
+            }
+            start = 0;
+        } else {
+            if (end >= limit) {
+                return false;
+            }
+            start = end + 1;
+        }
+        end = indexOf(uri, '/', start, limit);
+        if (end < 0) {
+            end = limit;
+        }
+        return true;
+    }
+
+    /**
+     * 取得节数，不移动游标
+     */
+    int count() {
+        if (limit < 0) {
+            return 0;
+        }
+        int count = 1;
+        for (int i = 0; i < limit; i++) {
+            if (uri.charAt(i) == '/') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    String uri() {
+        return uri;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+
+    int query() {
+        return query;
+    }
+
+    /**
+     * 当前节是否与文字相同
+     */
+    boolean matches(final String text) {
+        return regionMatches(uri, start, end, text, false);
+    }
+
+    /**
+     * 当前节是否含有该文字
+     */
+    boolean contains(final char c) {
+        return indexOf(uri, c, start, end) >= 0;
+    }
+
+    /**
+     * 用正则匹配text的[start, end)区域 (每次生成匹配器)
+     */
+    boolean matches(final Pattern pattern, final String text, final int start, final int end) {
+        return region(pattern.matcher(this), text, start, end).matches();
+    }
+
+    /**
+     * 把text的[start, end)区域重新设置为匹配器的输入
+     *
+     * @param matcher 当前线程的匹配器
+     */
+    Matcher region(final Matcher matcher, final String text, final int start, final int end) {
+        this.regionText = text;
+        this.regionStart = start;
+        this.regionEnd = end;
+        return matcher.reset(this);
+    }
+
+    @Override
+    public int length() {
+        return regionEnd - regionStart;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return regionText.charAt(regionStart + index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int from, final int to) {
+        return regionText.substring(regionStart + from, regionStart + to);
+    }
+
+    @Override
+    public String toString() {
+        return regionText.substring(regionStart, regionEnd);
+    }
+
+    static int indexOf(final String text, final char c, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean regionMatches(final String text, final int start, final int end, final String other,
+            final boolean ignoreCase) {
+        final int length = other.length();
+        return (end - start) == length && text.regionMatches(ignoreCase, start, other, 0, length);
+    }
+}
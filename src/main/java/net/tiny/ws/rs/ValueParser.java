@@ -0,0 +1,225 @@
+package net.tiny.ws.rs;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * 按参数类型特化的值解析器
+ * 直接从URI的[start, end)区域解析 int, long, double, boolean, UUID, 枚举, LocalDate，
+ * 不生成中间的子文字列。不是简单的形式(指数, 十六进制, 超过精度的小数等)时返回null，
+ * 由调用方按原来的 Converter 变换，保持相同的结果。
+ */
+interface ValueParser {
+
+    /**
+     * 解析text的[start, end)区域
+     *
+     * @return 解析的值, 不能直接解析时为null
+     */
+    Object parse(String text, int start, int end);
+
+    /**
+     * 取得类型对应的解析器
+     *
+     * @param type
+     * @return 没有特化的解析器时为null
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static ValueParser of(final Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return ValueParser::parseInt;
+        }
+        if (type == long.class || type == Long.class) {
+            return ValueParser::parseLong;
+        }
+        if (type == double.class || type == Double.class) {
+            return ValueParser::parseDouble;
+        }
+        if (type == short.class || type == Short.class) {
+            return (text, start, end) -> {
+                final Long value = parseLong(text, start, end);
+                return (null == value || value < Short.MIN_VALUE || value > Short.MAX_VALUE) ? null : (Object) value.shortValue();
+            };
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return ValueParser::parseBoolean;
+        }
+        if (type == UUID.class) {
+            return ValueParser::parseUuid;
+        }
+        if (type == LocalDate.class) {
+            return ValueParser::parseLocalDate;
+        }
+        if (type.isEnum()) {
+            final Enum[] constants = ((Class<? extends Enum>) type).getEnumConstants();
+            return (text, start, end) -> {
+                for (Enum constant : constants) {
+                    if (UriCursor.regionMatches(text, start, end, constant.name(), false)) {
+                        return constant;
+                    }
+                }
+                return null;
+            };
+        }
+        return null;
+    }
+
+    static Integer parseInt(final String text, final int start, final int end) {
+        final Long value = parseLong(text, start, end);
+        if (null == value || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return null;
+        }
+        return value.intValue();
+    }
+
+    /**
+     * 解析 [+-]?[0-9]+ , 溢出时返回null
+     */
+    static Long parseLong(final String text, final int start, final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i >= end || end - i > 18) {
+            // 19位以上可能溢出
+            return null;
+        }
+        long value = 0L;
+        for (; i < end; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            value = value * 10L + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /** 10^0 ~ 10^22 都能用double正确表示 */
+    double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * 解析 [+-]?[0-9]*(.[0-9]*)?
+     * 有效数字15位以内且小数位22位以内时，整数除以10的幂的结果与 Double#parseDouble 相同
+     */
+    static Double parseDouble(final String text, final int start, final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0L;
+        int digits = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c == '.') {
+                if (point) {
+                    return null;
+                }
+                point = true;
+                continue;
+            }
+            final int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            digits++;
+            if (significant > 0 || digit != 0) {
+                significant++;
+            }
+            if (significant > 15) {
+                return null;
+            }
+            mantissa = mantissa * 10L + digit;
+            if (point) {
+                scale++;
+            }
+        }
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return null;
+        }
+        final double value = scale == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * 与 Boolean#valueOf 相同, 只有"true"(不区分大小写)为true
+     */
+    static Boolean parseBoolean(final String text, final int start, final int end) {
+        return UriCursor.regionMatches(text, start, end, "true", true) ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+    /**
+     * 解析"xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx"
+     */
+    static UUID parseUuid(final String text, final int start, final int end) {
+        if (end - start != 36) {
+            return null;
+        }
+        long high = 0L;
+        long low = 0L;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            final int offset = i - start;
+            if (offset == 8 || offset == 13 || offset == 18 || offset == 23) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+            final int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                return null;
+            }
+            if (count < 16) {
+                high = (high << 4) | digit;
+            } else {
+                low = (low << 4) | digit;
+            }
+            count++;
+        }
+        return new UUID(high, low);
+    }
+
+    /**
+     * 解析"yyyy-MM-dd", 分隔符以外只允许ASCII数字 (不允许符号)
+     */
+    static LocalDate parseLocalDate(final String text, final int start, final int end) {
+        if (end - start != 10) {
+            return null;
+        }
+        for (int i = 0; i < 10; i++) {
+            final char c = text.charAt(start + i);
+            if (i == 4 || i == 7 ? c != '-' : (c < '0' || c > '9')) {
+                return null;
+            }
+        }
+        final int year = digits(text, start, start + 4);
+        final int month = digits(text, start + 5, start + 7);
+        final int day = digits(text, start + 8, end);
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    private static int digits(final String text, final int start, final int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,56 @@
+package net.tiny.ws.rs;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 虚拟线程(JDK 21+)的执行器
+ * 按1.8编译, 用反射调用 Executors.newVirtualThreadPerTaskExecutor()，
+ * 不支持的JDK上 {@link #isSupported()} 为false。
+ */
+final class VirtualThreads {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreads.class.getName());
+
+    private static final Method FACTORY = factory();
+
+    private VirtualThreads() {}
+
+    private static Method factory() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // JDK 19, 20 未启用预览功能时抛出UnsupportedOperationException
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (NoSuchMethodException ex) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOGGER.log(Level.FINE, "[REST] - Virtual threads are not available", ex);
+            return null;
+        }
+    }
+
+    static boolean isSupported() {
+        return null != FACTORY;
+    }
+
+    /**
+     * 生成每个任务一个虚拟线程的执行器
+     *
+     * @return 不支持时为null
+     */
+    static ExecutorService newExecutor() {
+        if (null == FACTORY) {
+            return null;
+        }
+        try {
+            return (ExecutorService) FACTORY.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "[REST] - Can not create virtual thread executor", ex);
+            return null;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.net.HttpURLConnection;
 import java.util.List;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 public abstract class WebContentsHandler {
 
@@ -57,10 +58,14 @@ public abstract class WebContentsHandler {
 
 	protected int setContents(InputStream in, OutputStream out) throws IOException {
 		// Cache contents data
-		if (isChunked()) {
+		if (isCompressed()) {
+			InputStream raw = isChunked() ? new ChunkedInputStream(in) : in;
+			if ("deflate".equalsIgnoreCase(getHeader("Content-Encoding"))) {
+				return setComprssedContents(new InflaterInputStream(raw), out);
+			}
+			return setComprssedContents(new GZIPInputStream(raw), out);
+		} else if (isChunked()) {
 			return setChunkedContents(new ChunkedInputStream(in), out);
-		} else if (isCompressed()) {
-			return setComprssedContents(new GZIPInputStream(in), out);
 		} else {
 			contentLength = getContentLength();
 			int bufferSize = MAX_BUFFER_SIZE;
@@ -91,7 +96,7 @@ public abstract class WebContentsHandler {
 		return total;
 	}
 
-	private int setComprssedContents(GZIPInputStream in, OutputStream out) throws IOException {
+	private int setComprssedContents(InputStream in, OutputStream out) throws IOException {
 		int total = 0;
 		// create a buffer of maximum size
 		byte buffer[] = new byte[MAX_BUFFER_SIZE];
@@ -116,7 +121,7 @@ public abstract class WebContentsHandler {
 		String value = getHeader("Content-Encoding");
 		if (value == null)
 			return false;
-		return value.equalsIgnoreCase("gzip");
+		return value.equalsIgnoreCase("gzip") || value.equalsIgnoreCase("deflate");
 	}
 
 	protected int getContentLength() {
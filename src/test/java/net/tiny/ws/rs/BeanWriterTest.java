@@ -0,0 +1,123 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+public class BeanWriterTest {
+
+    static class Base {
+        long id = 9876543210L;
+    }
+
+    static class Item extends Base {
+        static int counter = 0;
+        int count = -12;
+        boolean active = true;
+        double price = 1.5d;
+        char grade = 'A';
+        String name = "名前\"1\"";
+        String memo;
+        transient String secret = "x";
+        Detail detail = new Detail();
+        List<Detail> details = Arrays.asList(new Detail());
+    }
+
+    static class Detail {
+        float rate = Float.NaN;
+        Integer code = 3;
+    }
+
+    static class Rate {
+        float rate = 0.1f;
+        float large = 1.0E10f;
+        double ratio = 0.1d;
+    }
+
+    public List<Item> items() {
+        return null;
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        BeanWriter.clear();
+        BeanWriter.register(getClass().getMethod("items").getGenericReturnType());
+        assertNotNull(BeanWriter.get(Item.class));
+        // 字段类型的Bean也登录
+        assertNotNull(BeanWriter.get(Detail.class));
+        assertNull(BeanWriter.get(Base.class));
+        assertNull(BeanWriter.get(List.class));
+
+        BeanWriter.register(Response.class);
+        BeanWriter.register(String[].class);
+        BeanWriter.register(Map.class);
+        assertNull(BeanWriter.get(Response.class));
+        assertNull(BeanWriter.get(String.class));
+        assertFalse(BeanWriter.isBean(Integer.class));
+        assertTrue(BeanWriter.isBean(Item.class));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        BeanWriter.clear();
+        BeanWriter.register(Item.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter.write(Arrays.asList(new Item()), out);
+        assertEquals("[{\"id\":9876543210,\"count\":-12,\"active\":true,\"price\":1.5,\"grade\":\"A\","
+                + "\"name\":\"名前\\\"1\\\"\",\"detail\":{\"rate\":null,\"code\":3},"
+                + "\"details\":[{\"rate\":null,\"code\":3}]}]",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    public Object any() {
+        return null;
+    }
+
+    @Test
+    public void testRuntimeClass() throws Exception {
+        BeanWriter.clear();
+        // 声明为Object的返回类型也按实际类写出
+        BeanWriter.register(getClass().getMethod("any").getGenericReturnType());
+        assertNull(BeanWriter.get(Detail.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Detail detail = new Detail();
+        detail.code = null;
+        JsonWriter.write(detail, out);
+        assertEquals("{\"rate\":null}", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertNotNull(BeanWriter.get(Detail.class));
+        assertNull(BeanWriter.of(String.class));
+        assertNull(BeanWriter.get(String.class));
+
+        // 路由表重新生成时清除
+        TestExchange.handler(TestService.class);
+        assertNull(BeanWriter.get(Detail.class));
+    }
+
+    @Test
+    public void testWriteLong() throws Exception {
+        long[] values = {0L, 7L, -1L, 10L, 99L, 100L, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE, 1000000000000000000L};
+        for (long value : values) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonWriter.writeLong(value, out);
+            assertEquals(Long.toString(value), out.toString());
+        }
+    }
+
+    @Test
+    public void testWriteFloat() throws Exception {
+        BeanWriter.clear();
+        BeanWriter.register(Rate.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter.write(new Rate(), out);
+        // float不变换成double
+        assertEquals("{\"rate\":0.1,\"large\":1.0E10,\"ratio\":0.1}", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
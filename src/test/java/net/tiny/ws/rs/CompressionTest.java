@@ -0,0 +1,91 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class CompressionTest {
+
+    @Test
+    public void testNegotiate() throws Exception {
+        assertEquals("gzip", Compression.negotiate("gzip, deflate"));
+        assertEquals("deflate", Compression.negotiate("deflate"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0, deflate"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0.2, deflate;q=0.8"));
+        assertEquals("gzip", Compression.negotiate("*"));
+        assertEquals("gzip", Compression.negotiate("br, x-gzip"));
+        assertNull(Compression.negotiate("identity"));
+        assertNull(Compression.negotiate("*;q=0"));
+        assertNull(Compression.negotiate(""));
+        assertNull(Compression.negotiate(null));
+    }
+
+    @Test
+    public void testCompressFixedLength() throws Exception {
+        byte[] data = repeat("{\"name\":\"tiny-rest\"},", 100);
+        TestExchange he = new TestExchange("GET", "/api/v1/items");
+        ResponseOutputStream out = new ResponseOutputStream(he, 200)
+                .compress("gzip", 1024, Deflater.BEST_SPEED);
+        out.write(data);
+        out.close();
+        assertEquals("gzip", he.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals(he.getResponseBytes().length, he.getResponseLength());
+        assertTrue(he.getResponseLength() < data.length);
+        assertArrayEquals(data, read(new GZIPInputStream(new ByteArrayInputStream(he.getResponseBytes()))));
+
+        // 小于最小大小时不压缩
+        he = new TestExchange("GET", "/api/v1/items");
+        out = new ResponseOutputStream(he, 200).compress("gzip", 1024, Deflater.BEST_SPEED);
+        out.write(data, 0, 100);
+        out.close();
+        assertNull(he.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals(100L, he.getResponseLength());
+    }
+
+    @Test
+    public void testCompressChunked() throws Exception {
+        byte[] data = repeat("0123456789abcdef", 5000);
+        for (String encoding : new String[] {"gzip", "deflate"}) {
+            TestExchange he = new TestExchange("GET", "/api/v1/items");
+            ResponseOutputStream out = new ResponseOutputStream(he, 200)
+                    .compress(encoding, 1024, Deflater.BEST_SPEED);
+            for (int i = 0; i < data.length; i += 1000) {
+                out.write(data, i, Math.min(1000, data.length - i));
+            }
+            out.close();
+            assertEquals(0L, he.getResponseLength());
+            assertEquals(encoding, he.getResponseHeaders().getFirst("Content-Encoding"));
+            InputStream in = new ByteArrayInputStream(he.getResponseBytes());
+            in = "gzip".equals(encoding) ? new GZIPInputStream(in) : new InflaterInputStream(in);
+            assertArrayEquals(data, read(in));
+        }
+        // Deflater被重复使用
+        Deflater deflater = Compression.borrow("gzip", Deflater.BEST_SPEED);
+        Compression.release("gzip", Deflater.BEST_SPEED, deflater);
+        assertSame(deflater, Compression.borrow("gzip", Deflater.BEST_SPEED));
+    }
+
+    private static byte[] repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(text);
+        }
+        return sb.toString().getBytes();
+    }
+
+    private static byte[] read(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int len;
+        while ((len = in.read(buffer)) > 0) {
+            out.write(buffer, 0, len);
+        }
+        return out.toByteArray();
+    }
+}
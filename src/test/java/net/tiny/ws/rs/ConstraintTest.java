@@ -0,0 +1,79 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+public class ConstraintTest {
+
+    static final String UUID_REGEX =
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+
+    @Test
+    public void testCompileCommonShapes() {
+        assertTrue(Constraint.compile("\\d+") instanceof Constraint.Repeat);
+        assertTrue(Constraint.compile("[0-9]*") instanceof Constraint.Repeat);
+        assertTrue(Constraint.compile("[a-z]+") instanceof Constraint.Repeat);
+        assertTrue(Constraint.compile("[a-zA-Z0-9]+") instanceof Constraint.Repeat);
+        assertTrue(Constraint.compile("[0-9a-fA-F]+") instanceof Constraint.Repeat);
+        assertTrue(Constraint.compile("\\w{3,16}") instanceof Constraint.Repeat);
+        assertTrue(Constraint.compile("[^/]+") instanceof Constraint.Repeat);
+        assertTrue(Constraint.compile(UUID_REGEX) instanceof Constraint.Sequence);
+        assertTrue(Constraint.compile("[a-z]+-\\d+") instanceof Constraint.Sequence);
+
+        assertTrue(Constraint.compile("(abc|xyz)") instanceof Constraint.Regex);
+        assertTrue(Constraint.compile("^\\d+$") instanceof Constraint.Regex);
+        assertTrue(Constraint.compile("\\d+?") instanceof Constraint.Regex);
+        assertTrue(Constraint.compile("\\w+\\d") instanceof Constraint.Regex);
+        assertTrue(Constraint.compile("\\p{Alpha}+") instanceof Constraint.Regex);
+    }
+
+    @Test
+    public void testSameAsPattern() {
+        String[] regexes = {"\\d+", "\\d*", "[0-9]+", "\\d{4}", "\\d{2,4}", "\\d{2,}", "[a-z]*", "[a-z]+",
+                "[A-Za-z]+", "[a-zA-Z0-9]+", "\\w+", "[0-9a-fA-F]+", "[^/]+", "[-_a-z]+", "[a-z]+-\\d+",
+                "v\\d+", "\\d+\\.\\d+", ".*", "[a-z]?x", "\\S+", UUID_REGEX};
+        String[] values = {"", "1", "123", "1234", "12345", "abc", "ABC", "aBc9", "a_b", "abc-12", "v2", "1.5",
+                "deadBEEF", "x", "ax", "12.x", "a b", "-_", "日本",
+                "123e4567-e89b-12d3-a456-426614174000", "123e4567-e89b-12d3-a456-42661417400"};
+        for (String regex : regexes) {
+            Constraint constraint = Constraint.compile(regex);
+            Pattern pattern = Pattern.compile(regex);
+            for (String value : values) {
+                assertEquals(pattern.matcher(value).matches(), constraint.matches(value),
+                        "'" + regex + "' with '" + value + "'");
+            }
+        }
+    }
+
+    @Test
+    public void testMatchRegion() {
+        Constraint constraint = Constraint.compile("\\d+");
+        String uri = "/rest/customer/1234";
+        assertTrue(constraint.matches(uri, 15, 19));
+        assertFalse(constraint.matches(uri, 6, 14));
+        assertFalse(constraint.matches(uri, 15, 15));
+        assertEquals("\\d+", constraint.pattern());
+    }
+
+    @Test
+    public void testRegexPerThread() throws Exception {
+        Constraint regex = Constraint.compile("(abc|xyz)\\d");
+        assertTrue(regex instanceof Constraint.Regex);
+        String uri = "/items/xyz1/abc";
+        assertTrue(regex.matches(uri, 7, 11));
+        assertFalse(regex.matches(uri, 12, 15));
+        // 其他线程使用各自的匹配器
+        boolean[] results = new boolean[2];
+        Thread thread = new Thread(() -> {
+            results[0] = regex.matches("abc2", 0, 4);
+            results[1] = regex.matches("abd2", 0, 4);
+        });
+        thread.start();
+        thread.join();
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertTrue(regex.matches(uri, 7, 11));
+    }
+}
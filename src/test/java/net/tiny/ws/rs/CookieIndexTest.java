@@ -0,0 +1,28 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+public class CookieIndexTest {
+
+    @Test
+    public void testParse() throws Exception {
+        Map<String, String> cookies = CookieIndex.parse(Arrays.asList(
+                "$Version=1; myCookie=abc; myCookie1=value 1;myCookie2=x=y", "myCookie=other; last="));
+        assertEquals(4, cookies.size());
+        assertEquals("abc", cookies.get("myCookie"));
+        // 不按前缀匹配
+        assertEquals("value 1", cookies.get("myCookie1"));
+        assertEquals("x=y", cookies.get("myCookie2"));
+        assertEquals("", cookies.get("last"));
+        assertNull(cookies.get("$Version"));
+        assertNull(cookies.get("my"));
+
+        assertTrue(CookieIndex.parse(null).isEmpty());
+        assertTrue(CookieIndex.parse(Collections.singletonList(";; =a; b")).isEmpty());
+    }
+}
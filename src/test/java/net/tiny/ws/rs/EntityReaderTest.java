@@ -0,0 +1,113 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+public class EntityReaderTest {
+
+    static class Item {
+        String name;
+        int count;
+    }
+
+    @Path("/items")
+    public static class ItemService {
+        @POST
+        @Path("{id}")
+        @Consumes("application/json")
+        public String post(@PathParam("id") int id, Item item) {
+            return id + ":" + item.name + ":" + item.count;
+        }
+
+        @POST
+        @Path("raw")
+        public int raw(byte[] body) {
+            return body.length;
+        }
+    }
+
+    @Test
+    public void testBindEntity() throws Exception {
+        Method method = ItemService.class.getMethod("post", int.class, Item.class);
+        ParameterBinder[] binders = ParameterBinder.compile(method);
+        assertEquals(ParameterBinder.Source.ENTITY, binders[1].source);
+
+        TestExchange he = new TestExchange("POST", "/items/1",
+                "{\"name\":\"名前\",\"count\":3}".getBytes(StandardCharsets.UTF_8))
+                .header("Content-Type", "application/json; charset=UTF-8");
+        Item item = (Item) binders[1].bind(he, (Object) null);
+        assertEquals("名前", item.name);
+        assertEquals(3, item.count);
+
+        method = ItemService.class.getMethod("raw", byte[].class);
+        binders = ParameterBinder.compile(method);
+        he = new TestExchange("POST", "/items/raw", new byte[] {1, 2, 3});
+        assertEquals(3, ((byte[]) binders[0].bind(he, (Object) null)).length);
+
+        // 格式不正确
+        TestExchange invalid = new TestExchange("POST", "/items/1", "{\"name\":".getBytes());
+        EntityReader.EntityException ex = assertThrows(EntityReader.EntityException.class,
+                () -> EntityReader.read(invalid, Map.class, Map.class));
+        assertEquals(400, ex.getStatus());
+
+        // 整数字段的值超出范围
+        TestExchange overflow = new TestExchange("POST", "/items/1", "{\"count\":4294967296}".getBytes());
+        ex = assertThrows(EntityReader.EntityException.class,
+                () -> EntityReader.read(overflow, Item.class, Item.class));
+        assertEquals(400, ex.getStatus());
+
+        // 嵌套过深
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            deep.append('[');
+        }
+        TestExchange nested = new TestExchange("POST", "/items/1", deep.toString().getBytes());
+        ex = assertThrows(EntityReader.EntityException.class,
+                () -> EntityReader.read(nested, List.class, List.class));
+        assertEquals(400, ex.getStatus());
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        byte[] body = new byte[100];
+        TestExchange he = new TestExchange("POST", "/items/raw", body).header("Content-Length", "100");
+        EntityReader.EntityException ex = assertThrows(EntityReader.EntityException.class,
+                () -> EntityReader.limit(he, 50L));
+        assertEquals(413, ex.getStatus());
+
+        // 没有Content-Length时读取中检查
+        TestExchange chunked = new TestExchange("POST", "/items/raw", body);
+        EntityReader.limit(chunked, 50L);
+        ex = assertThrows(EntityReader.EntityException.class,
+                () -> EntityReader.read(chunked, byte[].class, byte[].class));
+        assertEquals(413, ex.getStatus());
+
+        TestExchange small = new TestExchange("POST", "/items/raw", body);
+        EntityReader.limit(small, 100L);
+        assertEquals(100, ((byte[]) EntityReader.read(small, byte[].class, byte[].class)).length);
+    }
+
+    @Test
+    public void testAcceptable() throws Exception {
+        String[] json = {"application/json"};
+        assertTrue(EntityReader.acceptable("application/json; charset=UTF-8", json));
+        assertTrue(EntityReader.acceptable("Application/JSON", json));
+        assertFalse(EntityReader.acceptable("text/plain", json));
+        assertTrue(EntityReader.acceptable("text/plain", new String[] {"application/json, text/*"}));
+        assertTrue(EntityReader.acceptable("text/plain", new String[] {"*/*"}));
+        assertTrue(EntityReader.acceptable("text/plain", null));
+        assertTrue(EntityReader.acceptable(null, json));
+        assertEquals(StandardCharsets.ISO_8859_1, EntityReader.charset("text/plain; charset=\"ISO-8859-1\""));
+        assertEquals(StandardCharsets.UTF_8, EntityReader.charset("text/plain"));
+    }
+}
@@ -0,0 +1,140 @@
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.call;
+import static net.tiny.ws.rs.TestExchange.handler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Response;
+
+public class EntityTagsTest {
+
+    @Path("/etag")
+    public static class VersionService {
+        @GET
+        @Path("value/{id}")
+        public String value(@PathParam("id") String id) {
+            return "value-" + id;
+        }
+
+        @GET
+        @Path("version")
+        public Response version() {
+            return Response.ok(Collections.singletonMap("v", 2)).tag("v2").build();
+        }
+
+        @GET
+        @Path("cached/{id}")
+        @Cached(ttl = 0L)
+        public String cached(@PathParam("id") String id) {
+            return "cached-" + id;
+        }
+
+        @GET
+        @Path("large")
+        public List<Integer> large() {
+            List<Integer> list = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                list.add(i);
+            }
+            return list;
+        }
+
+        @POST
+        @Path("post")
+        public String post() {
+            return "posted";
+        }
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        RestfulHttpHandler handler = handler(VersionService.class);
+        TestExchange he = call(handler, "/etag/value/1");
+        assertEquals(200, he.getResponseCode());
+        String etag = he.getResponseHeaders().getFirst("ETag");
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+
+        he = call(handler, new TestExchange("GET", "/etag/value/1").header("If-None-Match", etag));
+        assertEquals(304, he.getResponseCode());
+        assertEquals(-1L, he.getResponseLength());
+        assertEquals(0, he.getResponseBytes().length);
+        assertEquals(etag, he.getResponseHeaders().getFirst("ETag"));
+
+        he = call(handler, new TestExchange("GET", "/etag/value/1").header("If-None-Match", "\"other\", W/" + etag));
+        assertEquals(304, he.getResponseCode());
+
+        // 内容不同时ETag也不同
+        he = call(handler, new TestExchange("GET", "/etag/value/2").header("If-None-Match", etag));
+        assertEquals(200, he.getResponseCode());
+        assertFalse(etag.equals(he.getResponseHeaders().getFirst("ETag")));
+    }
+
+    @Test
+    public void testResourceVersion() throws Exception {
+        RestfulHttpHandler handler = handler(VersionService.class);
+        TestExchange he = call(handler, "/etag/version");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("\"v2\"", he.getResponseHeaders().getFirst("ETag"));
+        assertEquals("{\"v\":2}", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        he = call(handler, new TestExchange("GET", "/etag/version").header("If-None-Match", "\"v2\""));
+        assertEquals(304, he.getResponseCode());
+        assertEquals(0, he.getResponseBytes().length);
+    }
+
+    @Test
+    public void testCachedResponse() throws Exception {
+        RestfulHttpHandler handler = handler(VersionService.class);
+        TestExchange he = call(handler, "/etag/cached/1");
+        String etag = he.getResponseHeaders().getFirst("ETag");
+        // 缓存的ETag与直接写出时的相同
+        assertEquals(EntityTags.of(he.getResponseBytes(), 0, he.getResponseBytes().length, null), etag);
+        TestExchange value = call(handler, "/etag/value/1");
+        assertEquals(EntityTags.of(value.getResponseBytes(), 0, value.getResponseBytes().length, null),
+                value.getResponseHeaders().getFirst("ETag"));
+
+        he = call(handler, new TestExchange("GET", "/etag/cached/1").header("If-None-Match", etag));
+        assertEquals(304, he.getResponseCode());
+        assertEquals(0, he.getResponseBytes().length);
+    }
+
+    @Test
+    public void testWithoutEtag() throws Exception {
+        RestfulHttpHandler handler = handler(VersionService.class);
+        // 超过缓冲区按chunked送出时不生成
+        TestExchange he = call(handler, "/etag/large");
+        assertEquals(200, he.getResponseCode());
+        assertNull(he.getResponseHeaders().getFirst("ETag"));
+
+        he = call(handler, new TestExchange("POST", "/etag/post"));
+        assertEquals(200, he.getResponseCode());
+        assertNull(he.getResponseHeaders().getFirst("ETag"));
+
+        handler.setEtag(false);
+        he = call(handler, "/etag/value/1");
+        assertNull(he.getResponseHeaders().getFirst("ETag"));
+    }
+
+    @Test
+    public void testMatches() throws Exception {
+        assertTrue(EntityTags.matches("\"a\"", "\"a\""));
+        assertTrue(EntityTags.matches("W/\"a\"", "\"a\""));
+        assertTrue(EntityTags.matches("\"b\" , \"a\"", "\"a\""));
+        assertTrue(EntityTags.matches("*", "\"a\""));
+        assertFalse(EntityTags.matches("\"b\"", "\"a\""));
+        assertFalse(EntityTags.matches(null, "\"a\""));
+        assertEquals("\"3-352441c2\"", EntityTags.of("abc".getBytes(), 0, 3, null));
+        assertEquals("\"3-352441c2-gzip\"", EntityTags.of("abc".getBytes(), 0, 3, "gzip"));
+    }
+}
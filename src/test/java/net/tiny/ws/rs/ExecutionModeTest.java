@@ -0,0 +1,169 @@
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.call;
+import static net.tiny.ws.rs.TestExchange.handler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+public class ExecutionModeTest {
+
+    static CountDownLatch latch = new CountDownLatch(0);
+    static CountDownLatch entered = new CountDownLatch(0);
+    static CompletableFuture<String> pending;
+
+    @Path("/blocking")
+    public static class BlockingService {
+        @GET
+        @Path("echo/{name}")
+        public String echo(@PathParam("name") String name) {
+            return name + "@" + Thread.currentThread().getName();
+        }
+
+        @GET
+        @Path("wait")
+        public String await() throws InterruptedException {
+            entered.countDown();
+            latch.await(5L, TimeUnit.SECONDS);
+            return "done";
+        }
+
+        @GET
+        @Path("future")
+        public CompletionStage<String> future() {
+            return pending;
+        }
+
+        @GET
+        @Path("sleep")
+        public int sleep() throws InterruptedException {
+            Thread.sleep(10L);
+            return 1;
+        }
+    }
+
+    @Test
+    public void testExecutionMode() throws Exception {
+        RestfulHttpHandler handler = handler(BlockingService.class);
+        assertEquals(RestfulHttpHandler.PLATFORM, handler.getExecutionMode());
+        handler.setExecutionMode(RestfulHttpHandler.VIRTUAL);
+        if (VirtualThreads.isSupported()) {
+            assertEquals(RestfulHttpHandler.VIRTUAL, handler.getExecutionMode());
+        } else {
+            // 不支持的JDK上按platform执行
+            assertEquals(RestfulHttpHandler.PLATFORM, handler.getExecutionMode());
+        }
+        handler.setExecutionMode(RestfulHttpHandler.PLATFORM);
+        assertThrows(IllegalArgumentException.class, () -> handler.setExecutionMode("unknown"));
+    }
+
+    @Test
+    public void testDispatch() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "dispatch"));
+        try {
+            RestfulHttpHandler handler = handler(BlockingService.class).setExecutor(executor);
+            TestExchange he = call(handler, "/blocking/echo/tiny").await();
+            assertEquals(200, he.getResponseCode());
+            assertEquals("\"tiny@dispatch\"", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMaxConcurrency() throws Exception {
+        RestfulHttpHandler handler = handler(BlockingService.class).setMaxConcurrency(1);
+        latch = new CountDownLatch(1);
+        entered = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<TestExchange> first = pool.submit(() -> call(handler, "/blocking/wait"));
+            assertTrue(entered.await(5L, TimeUnit.SECONDS));
+            // 上限已满, 不等待立即返回503
+            assertEquals(503, call(handler, "/blocking/wait").getResponseCode());
+
+            latch.countDown();
+            TestExchange he = first.get(5L, TimeUnit.SECONDS);
+            assertEquals(200, he.getResponseCode());
+            assertEquals("\"done\"", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+            // 结束后归还
+            assertEquals(200, call(handler, "/blocking/wait").getResponseCode());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDispatchConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            RestfulHttpHandler handler = handler(BlockingService.class).setExecutor(executor)
+                    .setMaxConcurrency(1).setAsyncTimeout(100L);
+            latch = new CountDownLatch(1);
+            entered = new CountDownLatch(1);
+            TestExchange first = call(handler, "/blocking/wait");
+            assertTrue(entered.await(5L, TimeUnit.SECONDS));
+            // 在asyncTimeout内等待空位, 超时后返回503
+            assertEquals(503, call(handler, "/blocking/wait").await().getResponseCode());
+
+            // 执行时间超过asyncTimeout的同步方法不超时
+            Thread.sleep(150L);
+            latch.countDown();
+            TestExchange he = first.await();
+            assertEquals(200, he.getResponseCode());
+            assertEquals("\"done\"", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+            assertEquals(200, call(handler, "/blocking/wait").await().getResponseCode());
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReloadConcurrency() throws Exception {
+        RestfulHttpHandler handler = handler(BlockingService.class).setMaxConcurrency(1);
+        latch = new CountDownLatch(1);
+        entered = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<TestExchange> first = pool.submit(() -> call(handler, "/blocking/wait"));
+            assertTrue(entered.await(5L, TimeUnit.SECONDS));
+            // 重新加载后同一路由共用上限
+            handler.setFactory(handler(BlockingService.class).getFactory());
+            assertEquals(503, call(handler, "/blocking/wait").getResponseCode());
+            latch.countDown();
+            assertEquals(200, first.get(5L, TimeUnit.SECONDS).getResponseCode());
+            assertEquals(200, call(handler, "/blocking/wait").getResponseCode());
+        } finally {
+            latch.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncConcurrency() throws Exception {
+        RestfulHttpHandler handler = handler(BlockingService.class).setMaxConcurrency(1);
+        pending = new CompletableFuture<>();
+        TestExchange first = call(handler, "/blocking/future");
+        // 异步的结果完成前不归还
+        assertEquals(503, call(handler, "/blocking/future").getResponseCode());
+
+        pending.complete("ok");
+        assertEquals(200, first.await().getResponseCode());
+        pending = CompletableFuture.completedFuture("again");
+        TestExchange he = call(handler, "/blocking/future").await();
+        assertEquals("\"again\"", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+    }
+}
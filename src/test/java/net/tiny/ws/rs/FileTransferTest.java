@@ -0,0 +1,131 @@
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.call;
+import static net.tiny.ws.rs.TestExchange.handler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+public class FileTransferTest {
+
+    static java.nio.file.Path report;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        report = Files.createTempFile("report", ".txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append(i % 10);
+        }
+        Files.write(report, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(report);
+    }
+
+    @Path("/files")
+    public static class FileService {
+        @GET
+        @Path("path")
+        public java.nio.file.Path path() {
+            return report;
+        }
+
+        @GET
+        @Path("file")
+        @Produces("text/csv")
+        public File file() {
+            return report.toFile();
+        }
+
+        @GET
+        @Path("missing")
+        public java.nio.file.Path missing() {
+            return Paths.get("not-exists.txt");
+        }
+
+        @GET
+        @Path("region")
+        public FileRegion region() throws IOException {
+            FileChannel channel = FileChannel.open(report, StandardOpenOption.READ);
+            return new FileRegion(channel, 10L, 5L, "text/plain");
+        }
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        assertArrayEquals(new long[] {0L, 499L}, FileTransfer.range("bytes=0-499", 1000L));
+        assertArrayEquals(new long[] {500L, 999L}, FileTransfer.range("bytes=500-", 1000L));
+        assertArrayEquals(new long[] {900L, 999L}, FileTransfer.range("bytes=-100", 1000L));
+        assertArrayEquals(new long[] {0L, 999L}, FileTransfer.range("bytes=-2000", 1000L));
+        assertArrayEquals(new long[] {990L, 999L}, FileTransfer.range("bytes=990-2000", 1000L));
+        assertEquals(0, FileTransfer.range("bytes=1000-", 1000L).length);
+        assertEquals(0, FileTransfer.range("bytes=-0", 1000L).length);
+        // 送出整个文件
+        assertNull(FileTransfer.range("bytes=0-1,5-6", 1000L));
+        assertNull(FileTransfer.range("bytes=9-1", 1000L));
+        assertNull(FileTransfer.range("items=0-1", 1000L));
+        assertNull(FileTransfer.range("bytes=a-b", 1000L));
+    }
+
+    @Test
+    public void testPath() throws Exception {
+        TestExchange he = call(handler(FileService.class), "/files/path");
+        assertEquals(200, he.getResponseCode());
+        assertEquals(2000L, he.getResponseLength());
+        assertEquals("text/plain", he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals("bytes", he.getResponseHeaders().getFirst("Accept-Ranges"));
+        assertNotNull(he.getResponseHeaders().getFirst("Last-Modified"));
+        assertNull(he.getResponseHeaders().getFirst("Content-Encoding"));
+        assertArrayEquals(Files.readAllBytes(report), he.getResponseBytes());
+    }
+
+    @Test
+    public void testPartialContent() throws Exception {
+        RestfulHttpHandler handler = handler(FileService.class);
+        TestExchange he = call(handler, new TestExchange("GET", "/files/file").header("Range", "bytes=10-14"));
+        assertEquals(206, he.getResponseCode());
+        assertEquals(5L, he.getResponseLength());
+        assertEquals("text/csv", he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals("bytes 10-14/2000", he.getResponseHeaders().getFirst("Content-Range"));
+        assertEquals("01234", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        he = call(handler, new TestExchange("GET", "/files/file").header("Range", "bytes=5000-"));
+        assertEquals(416, he.getResponseCode());
+        assertEquals("bytes */2000", he.getResponseHeaders().getFirst("Content-Range"));
+
+        // "If-Range"不一致时送出整个文件
+        he = call(handler, new TestExchange("GET", "/files/file").header("Range", "bytes=10-14")
+                .header("If-Range", "Thu, 01 Jan 1970 00:00:00 GMT"));
+        assertEquals(200, he.getResponseCode());
+        assertEquals(2000L, he.getResponseLength());
+    }
+
+    @Test
+    public void testRegionAndMissing() throws Exception {
+        RestfulHttpHandler handler = handler(FileService.class);
+        TestExchange he = call(handler, "/files/region");
+        assertEquals(200, he.getResponseCode());
+        assertEquals(5L, he.getResponseLength());
+        assertEquals("text/plain", he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals("01234", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        he = call(handler, "/files/missing");
+        assertEquals(404, he.getResponseCode());
+    }
+}
@@ -0,0 +1,86 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.FormParam;
+import javax.ws.rs.POST;
+
+public class FormDecoderTest {
+
+    public static class FormService {
+        @POST
+        public String post(@FormParam("name") String name, @FormParam("tag") String[] tags,
+                @FormParam("empty") String empty) {
+            return name;
+        }
+    }
+
+    @Test
+    public void testDecodeForm() throws Exception {
+        Method method = SampleService.class.getMethod("divide", Double.class, Double.class);
+        ParameterBinder[] binders = ParameterBinder.compile(method);
+        FormDecoder form = FormDecoder.of(binders);
+        assertNotNull(form);
+
+        TestExchange he = new TestExchange("POST", "/calc/divide", "divisor=10&other=x&roundingMode=4".getBytes())
+                .header("Content-Type", "application/x-www-form-urlencoded");
+        Object[] slots = new Object[binders.length];
+        assertTrue(form.decode(he, slots));
+        assertArrayEquals(new Object[] {"10", "4"}, slots);
+        Object[] params = ParameterBinder.bindSlots(binders, he, slots);
+        assertEquals(10.0d, params[0]);
+        assertEquals(4.0d, params[1]);
+
+        // Content-Type不一致时不读取请求体
+        he = new TestExchange("POST", "/calc/divide", "divisor=10".getBytes())
+                .header("Content-Type", "application/json");
+        slots = new Object[binders.length];
+        assertFalse(form.decode(he, slots));
+        assertNull(slots[0]);
+
+        method = SampleService.class.getMethod("add", double.class, double.class);
+        assertNull(FormDecoder.of(ParameterBinder.compile(method)));
+    }
+
+    @Test
+    public void testDecodeEscape() throws Exception {
+        Method method = FormService.class.getMethod("post", String.class, String[].class, String.class);
+        FormDecoder form = FormDecoder.of(ParameterBinder.compile(method));
+        String body = "skip=%E5%90%8D%ZZ&name=%E5%90%8D+%E5%89%8D%2B%zz%4&tag=a&tag=b%26c&tag=&na%6De=second&empty";
+        // 每次只读取1字节, 跨越缓冲区的转义也能解码
+        InputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.US_ASCII)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(1, len));
+            }
+        };
+        Object[] slots = new Object[3];
+        form.decode(in, StandardCharsets.UTF_8, slots);
+        assertArrayEquals(new String[] {"名 前+%zz%4", "second"}, (String[]) slots[0]);
+        assertArrayEquals(new String[] {"a", "b&c", ""}, (String[]) slots[1]);
+        assertEquals("", slots[2]);
+    }
+
+    @Test
+    public void testLargeValue() throws Exception {
+        Method method = FormService.class.getMethod("post", String.class, String[].class, String.class);
+        FormDecoder form = FormDecoder.of(ParameterBinder.compile(method));
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        Object[] slots = new Object[3];
+        form.decode(new ByteArrayInputStream(("name=" + value + "&tag=x").getBytes(StandardCharsets.US_ASCII)),
+                StandardCharsets.UTF_8, slots);
+        assertEquals(value.toString(), slots[0]);
+        assertEquals("x", slots[1]);
+        // 超过上限的缓冲区不按线程保留
+        assertTrue(FormDecoder.BUFFERS.get()[1].length <= FormDecoder.MAX_RETAINED);
+    }
+}
@@ -0,0 +1,50 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+public class InvokerTest {
+
+    static class Target {
+        private String id;
+
+        public String join(String a, int b, double c) {
+            return a + b + c;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public static long twice(long value) {
+            return value * 2L;
+        }
+
+        public String fail() throws IOException {
+            throw new IOException("fail");
+        }
+    }
+
+    @Test
+    public void testInvoke() throws Throwable {
+        Target target = new Target();
+        Invoker invoker = Invoker.of(Target.class.getMethod("join", String.class, int.class, double.class));
+        assertEquals("a12.5", invoker.invoke(target, new Object[] {"a", 1, 2.5d}));
+
+        invoker = Invoker.of(Target.class.getMethod("setId", String.class));
+        assertNull(invoker.invoke(target, new Object[] {"123"}));
+        assertEquals("123", target.id);
+
+        invoker = Invoker.of(Target.class.getMethod("twice", long.class));
+        assertEquals(8L, invoker.invoke(null, new Object[] {4L}));
+    }
+
+    @Test
+    public void testThrowOriginalException() throws Throwable {
+        Invoker invoker = Invoker.of(Target.class.getMethod("fail"));
+        IOException ex = assertThrows(IOException.class, () -> invoker.invoke(new Target(), new Object[0]));
+        assertEquals("fail", ex.getMessage());
+    }
+}
@@ -0,0 +1,116 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class JsonReaderTest {
+
+    static class Order {
+        long id;
+        String name;
+        boolean paid;
+        double total;
+        Status status;
+        List<Line> lines;
+        Map<String, Integer> counts;
+        int[] codes;
+    }
+
+    static class Line {
+        String item;
+        int quantity;
+    }
+
+    enum Status { open, closed }
+
+    public Set<Line> lines() {
+        return null;
+    }
+
+    @Test
+    public void testReadValue() throws Exception {
+        Object value = JsonReader.read(new StringReader(" {\"a\" : [1, -2.5, true, null, \"x\\\"y\\u4e2d\\n\"], \"b\":{}} "),
+                Object.class, Object.class);
+        assertEquals("{a=[1, -2.5, true, null, x\"y中\n], b={}}", value.toString());
+        assertNull(JsonReader.read(new StringReader("  "), Object.class, Object.class));
+        assertEquals(12345678901L, JsonReader.read(new StringReader("12345678901"), Object.class, Object.class));
+        assertEquals(100.0d, JsonReader.read(new StringReader("1e2"), Object.class, Object.class));
+
+        String[] invalids = {"{", "[1,]", "{\"a\" 1}", "tru", "\"abc", "1 2", "{a:1}", "-"};
+        for (String invalid : invalids) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> JsonReader.read(new StringReader(invalid), Object.class, Object.class), invalid);
+        }
+    }
+
+    @Test
+    public void testReadBean() throws Exception {
+        String json = "{\"id\":1001,\"name\":\"order\",\"paid\":true,\"total\":12.5,\"status\":\"closed\","
+                + "\"lines\":[{\"item\":\"pen\",\"quantity\":2},{\"item\":\"ink\",\"quantity\":1,\"unknown\":0}],"
+                + "\"counts\":{\"a\":1},\"codes\":[3,4]}";
+        // 缓冲区小于JSON时也按段读取
+        JsonReader reader = new JsonReader(new StringReader(json), 8);
+        Order order = (Order) JsonReader.convert(reader.readValue(), Order.class, Order.class);
+        assertEquals(1001L, order.id);
+        assertEquals("order", order.name);
+        assertTrue(order.paid);
+        assertEquals(12.5d, order.total);
+        assertEquals(Status.closed, order.status);
+        assertEquals(2, order.lines.size());
+        assertEquals("ink", order.lines.get(1).item);
+        assertEquals(2, order.lines.get(0).quantity);
+        assertEquals(Integer.valueOf(1), order.counts.get("a"));
+        assertArrayEquals(new int[] {3, 4}, order.codes);
+
+        @SuppressWarnings("unchecked")
+        Set<Line> lines = (Set<Line>) JsonReader.read(new StringReader("[{\"item\":\"pen\"}]"), Set.class,
+                getClass().getMethod("lines").getGenericReturnType());
+        assertEquals("pen", lines.iterator().next().item);
+    }
+
+    @Test
+    public void testIntegralRange() throws Exception {
+        assertEquals(2147483647, JsonReader.read(new StringReader("2147483647"), int.class, int.class));
+        assertEquals((short) -32768, JsonReader.read(new StringReader("-32768"), short.class, short.class));
+        assertEquals((byte) 127, JsonReader.read(new StringReader("127"), Byte.class, Byte.class));
+        assertEquals(3L, JsonReader.read(new StringReader("3.0"), long.class, long.class));
+        assertEquals(1.5f, JsonReader.read(new StringReader("1.5"), float.class, float.class));
+
+        // 不截断小数部分, 不溢出
+        String[][] invalids = {{"1.5", "int"}, {"2147483648", "int"}, {"-129", "byte"}, {"40000", "short"},
+                {"1e19", "long"}, {"9223372036854775808", "long"}, {"0.1", "long"}};
+        for (String[] invalid : invalids) {
+            Class<?> type = "int".equals(invalid[1]) ? int.class
+                    : "byte".equals(invalid[1]) ? byte.class : "short".equals(invalid[1]) ? short.class : long.class;
+            assertThrows(IllegalArgumentException.class,
+                    () -> JsonReader.read(new StringReader(invalid[0]), type, type), invalid[0]);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonReader.read(new StringReader("{\"item\":\"pen\",\"quantity\":2.5}"), Line.class, Line.class));
+    }
+
+    @Test
+    public void testDepth() throws Exception {
+        assertNotNull(JsonReader.read(new StringReader(nested(JsonReader.MAX_DEPTH)), Object.class, Object.class));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> JsonReader.read(new StringReader(nested(JsonReader.MAX_DEPTH + 1)), Object.class, Object.class));
+        assertEquals("Invalid JSON: Too deep", ex.getMessage());
+    }
+
+    private static String nested(int depth) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append(i % 2 == 0 ? "[" : "{\"a\":");
+        }
+        sb.append('0');
+        for (int i = depth - 1; i >= 0; i--) {
+            sb.append(i % 2 == 0 ? "]" : "}");
+        }
+        return sb.toString();
+    }
+}
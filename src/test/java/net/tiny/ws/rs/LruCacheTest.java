@@ -0,0 +1,39 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class LruCacheTest {
+
+    @Test
+    public void testEviction() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        assertEquals(2, cache.capacity());
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("c", 3);
+        // "b"是最久未使用的项
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.evictions());
+        assertEquals(3L, cache.hits());
+        assertEquals(1L, cache.misses());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testBoundedSize() {
+        LruCache<Integer, Integer> cache = new LruCache<>(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 112);
+        assertEquals(Integer.valueOf(9999), cache.get(9999));
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<String, String>(0));
+    }
+}
@@ -0,0 +1,60 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.UriInfo;
+
+public class ParameterBinderTest {
+
+    @Test
+    public void testCompile() throws Exception {
+        Method method = SampleService.class.getMethod("query", int.class, int.class, List.class);
+        ParameterBinder[] binders = ParameterBinder.compile(method);
+        assertEquals(3, binders.length);
+        assertEquals(ParameterBinder.Source.ARGUMENT, binders[0].source);
+        assertEquals("from", binders[0].key);
+        assertEquals(int.class, binders[0].type);
+        assertEquals("orderBy", binders[2].key);
+
+        method = SampleService.class.getMethod("cookie", Cookie.class, Cookie.class);
+        binders = ParameterBinder.compile(method);
+        assertEquals(ParameterBinder.Source.COOKIE, binders[0].source);
+        assertEquals("myCookie1", binders[0].key);
+
+        method = SampleService.class.getMethod("info", UriInfo.class);
+        binders = ParameterBinder.compile(method);
+        assertEquals(ParameterBinder.Source.CONTEXT, binders[0].source);
+        assertNull(binders[0].key);
+    }
+
+    @Test
+    public void testBindArguments() throws Exception {
+        Method method = SampleService.class.getMethod("query", int.class, int.class, List.class);
+        ParameterBinder[] binders = ParameterBinder.compile(method);
+
+        Map<String, Object> args = new HashMap<>();
+        args.put("from", "10");
+        args.put("to", new String[] {"20", "30"});
+        Object[] params = ParameterBinder.bind(binders, null, args);
+        assertEquals(10, params[0]);
+        assertEquals(20, params[1]);
+        assertEquals("[name]", params[2].toString());
+
+        // 使用@DefaultValue
+        args.clear();
+        params = ParameterBinder.bind(binders, null, args);
+        assertEquals(100, params[0]);
+        assertEquals(999, params[1]);
+        // List每次生成新的实例
+        Object[] other = ParameterBinder.bind(binders, null, args);
+        assertNotSame(params[2], other[2]);
+        assertEquals(params[2], other[2]);
+    }
+}
@@ -1,60 +1,169 @@
-package net.tiny.ws.rs;
-
-import static org.junit.jupiter.api.Assertions.*;
-import org.junit.jupiter.api.Test;
-
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.MethodType;
-import java.lang.reflect.Method;
-
-public class ReflectBenchmarkTest {
-    @Test
-    public void testReflect() throws Throwable {
-        final int exeCount = 10000000;
-        final Class<?> c = TestService.class;
-        final Object j = c.newInstance();
-        Method m = c.getMethod("setId", String.class);
-        System.out.println("测试开始，循环次数：" + exeCount / 10000 + "万");
-        System.out.println("----------------------------------------------------------------------------------");
-        System.out.println("直接调用Method："); //30ms
-        long currTime = System.currentTimeMillis();
-        for (int i = 0; i < exeCount; i++) {
-            m.invoke(j, "test");
-        }
-        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
-                + "豪秒");
-        System.out.println("----------------------------------------------------------------------------------");
-        System.out.println("每次构造Method再执行："); //3000ms
-        currTime = System.currentTimeMillis();
-        for (int i = 0; i < exeCount; i++) {
-            m = c.getMethod("setId", String.class);
-            m.invoke(j, "test");
-        }
-        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
-                + "豪秒");
-        System.out.println("----------------------------------------------------------------------------------");
-        final TestService service = new TestService();
-        System.out.println("直接调用：");  //20ms
-        currTime = System.currentTimeMillis();
-        for (int i = 0; i < exeCount; i++) {
-            service.setId("test");
-        }
-        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
-                + "豪秒");
-
-        System.out.println("----------------------------------------------------------------------------------");
-        System.out.println("方法句柄调用：");//100ms
-        currTime = System.currentTimeMillis();
-        MethodHandles.Lookup lookkup=MethodHandles.lookup();
-        MethodType mt = MethodType.methodType(void.class, String.class);
-        MethodHandle methodHandle=lookkup.findVirtual(TestService.class, "setId", mt);
-        assertNotNull(methodHandle);
-        for (int i = 0; i < exeCount; i++) {
-            methodHandle.invokeExact(service, "test");
-        }
-        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
-                + "豪秒");
-
-    }
-}
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.handler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ReflectBenchmarkTest {
+    @Test
+    public void testReflect() throws Throwable {
+        final int exeCount = 10000000;
+        final Class<?> c = TestService.class;
+        final Object j = c.newInstance();
+        Method m = c.getMethod("setId", String.class);
+        System.out.println("测试开始，循环次数：" + exeCount / 10000 + "万");
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.println("直接调用Method："); //30ms
+        long currTime = System.currentTimeMillis();
+        for (int i = 0; i < exeCount; i++) {
+            m.invoke(j, "test");
+        }
+        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
+                + "豪秒");
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.println("每次构造Method再执行："); //3000ms
+        currTime = System.currentTimeMillis();
+        for (int i = 0; i < exeCount; i++) {
+            m = c.getMethod("setId", String.class);
+            m.invoke(j, "test");
+        }
+        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
+                + "豪秒");
+        System.out.println("----------------------------------------------------------------------------------");
+        final TestService service = new TestService();
+        System.out.println("直接调用：");  //20ms
+        currTime = System.currentTimeMillis();
+        for (int i = 0; i < exeCount; i++) {
+            service.setId("test");
+        }
+        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
+                + "豪秒");
+
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.println("方法句柄调用：");//100ms
+        currTime = System.currentTimeMillis();
+        MethodHandles.Lookup lookkup=MethodHandles.lookup();
+        MethodType mt = MethodType.methodType(void.class, String.class);
+        MethodHandle methodHandle=lookkup.findVirtual(TestService.class, "setId", mt);
+        assertNotNull(methodHandle);
+        for (int i = 0; i < exeCount; i++) {
+            methodHandle.invokeExact(service, "test");
+        }
+        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
+                + "豪秒");
+
+    }
+
+    @Test
+    public void testInvoker() throws Throwable {
+        final int exeCount = 1000000;
+        final TestService service = new TestService();
+        final Object[] args = new Object[] {"123"};
+        final Method m = TestService.class.getMethod("getId", String.class);
+        final Invoker invoker = Invoker.of(m);
+        assertEquals(m.invoke(service, args), invoker.invoke(service, args));
+
+        // SampleService的路由, 固定为单例以免测量实体的生成
+        final SampleService sample = new SampleService();
+        final Object[] params = new Object[] {12.0d, 23.0d};
+        final Method add = SampleService.class.getMethod("add", double.class, double.class);
+        final RestServiceWrapper wrapper = new RestServiceWrapper(sample, Constants.Mode.singleton.name());
+        assertEquals(Constants.Mode.singleton, wrapper.getMode());
+        final MethodPattern pattern = wrapper.getMethodPatterns().stream()
+                .filter(p -> p.getMethod().equals(add)).findFirst().get();
+        assertEquals(add.invoke(sample, params), pattern.invoke(params));
+
+        System.out.println("测试开始，循环次数：" + exeCount / 10000 + "万");
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.println("Method.invoke调用：");
+        long currTime = System.currentTimeMillis();
+        for (int i = 0; i < exeCount; i++) {
+            add.invoke(sample, params);
+        }
+        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
+                + "豪秒");
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.println("Invoker调用：");
+        final Invoker adder = Invoker.of(add);
+        currTime = System.currentTimeMillis();
+        for (int i = 0; i < exeCount; i++) {
+            adder.invoke(sample, params);
+        }
+        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
+                + "豪秒");
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.println("MethodPattern.invoke调用：");
+        currTime = System.currentTimeMillis();
+        for (int i = 0; i < exeCount; i++) {
+            pattern.invoke(params);
+        }
+        System.out.println("执行结束，耗时" + (System.currentTimeMillis() - currTime)
+                + "豪秒");
+    }
+
+    @Test
+    public void testExecutionMode() throws Exception {
+        final int requests = 400;
+        final int poolSize = 16;
+        System.out.println("阻塞的资源方法(10ms), 请求数：" + requests + ", 线程池：" + poolSize);
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.println("platform (线程池中执行)：");
+        System.out.println("执行结束，耗时" + run(handler(ExecutionModeTest.BlockingService.class), requests, poolSize) + "豪秒");
+        System.out.println("----------------------------------------------------------------------------------");
+        if (!VirtualThreads.isSupported()) {
+            System.out.println("virtual：Java " + System.getProperty("java.version") + " 不支持虚拟线程");
+            return;
+        }
+        System.out.println("virtual (虚拟线程中执行)：");
+        RestfulHttpHandler handler = handler(ExecutionModeTest.BlockingService.class).setExecutionMode(RestfulHttpHandler.VIRTUAL);
+        try {
+            System.out.println("执行结束，耗时" + run(handler, requests, poolSize) + "豪秒");
+        } finally {
+            handler.setExecutionMode(RestfulHttpHandler.PLATFORM);
+        }
+    }
+
+    private static long run(RestfulHttpHandler handler, int requests, int poolSize) throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        final List<TestExchange> exchanges = new ArrayList<>();
+        final CountDownLatch handled = new CountDownLatch(requests);
+        final long currTime = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < requests; i++) {
+                final TestExchange he = new TestExchange("GET", "/blocking/sleep");
+                exchanges.add(he);
+                pool.execute(() -> {
+                    try {
+                        handler.handle(he);
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    } finally {
+                        handled.countDown();
+                    }
+                });
+            }
+            handled.await(30L, TimeUnit.SECONDS);
+            for (TestExchange he : exchanges) {
+                if (RestfulHttpHandler.VIRTUAL.equals(handler.getExecutionMode())) {
+                    // 虚拟线程中写入响应后关闭
+                    he.await();
+                }
+                assertEquals(200, he.getResponseCode());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return System.currentTimeMillis() - currTime;
+    }
+}
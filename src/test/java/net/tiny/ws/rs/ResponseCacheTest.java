@@ -0,0 +1,242 @@
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.call;
+import static net.tiny.ws.rs.TestExchange.handler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
+
+public class ResponseCacheTest {
+
+    static final AtomicInteger calls = new AtomicInteger();
+    static CountDownLatch entered;
+    static CountDownLatch release;
+
+    @Path("/cache")
+    public static class CachedService {
+        @GET
+        @Path("add/{a}/{b}")
+        @Cached(ttl = 0L, maxEntries = 100)
+        public int add(@PathParam("a") int a, @PathParam("b") int b) {
+            calls.incrementAndGet();
+            return a + b;
+        }
+
+        @GET
+        @Path("list")
+        @Cached(ttl = 1L, maxEntries = 10)
+        public List<String> list(@QueryParam("n") int n) {
+            calls.incrementAndGet();
+            List<String> list = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                list.add("item-" + i);
+            }
+            return list;
+        }
+
+        @GET
+        @Path("range/{n}")
+        @Cached(ttl = 0L)
+        public List<Integer> range(@PathParam("n") int n) {
+            calls.incrementAndGet();
+            List<Integer> list = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                list.add(i);
+            }
+            return list;
+        }
+
+        @GET
+        @Path("slow/{n}")
+        @Cached(ttl = 0L)
+        public int slow(@PathParam("n") int n) throws InterruptedException {
+            calls.incrementAndGet();
+            if (n == 0) {
+                entered.countDown();
+                release.await(5L, TimeUnit.SECONDS);
+            }
+            return n;
+        }
+
+        @GET
+        @Path("response")
+        @Cached
+        public Response response() {
+            calls.incrementAndGet();
+            return Response.ok("ok").build();
+        }
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        RestfulHttpHandler handler = handler(CachedService.class).setCompressMinSize(64);
+        calls.set(0);
+        TestExchange he = call(handler, "/cache/add/1/2");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("3", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        assertEquals(1, calls.get());
+
+        // 参数变换后相同的请求命中缓存, 不调用资源方法
+        he = call(handler, "/cache/add/01/2");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("3", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        assertTrue(he.getResponseHeaders().getFirst("Content-Type").startsWith("application/json"));
+        assertEquals(1, calls.get());
+
+        he = call(handler, "/cache/add/2/2");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("4", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        assertEquals(2, calls.get());
+
+        MethodPattern pattern = handler.getFactory().match("/cache/add/1/2", "GET").getMethodPattern();
+        ResponseCache cache = pattern.getCache();
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.hits());
+        assertEquals(2L, cache.misses());
+        assertTrue(handler.getFactory().info(true).contains("hitRate:0.33"));
+    }
+
+    @Test
+    public void testGzipVariantAndTtl() throws Exception {
+        RestfulHttpHandler handler = handler(CachedService.class).setCompressMinSize(64);
+        calls.set(0);
+        TestExchange he = call(handler, new TestExchange("GET", "/cache/list?n=50").header("Accept-Encoding", "gzip"));
+        assertEquals(200, he.getResponseCode());
+        assertEquals("gzip", he.getResponseHeaders().getFirst("Content-Encoding"));
+        byte[] gzip = he.getResponseBytes();
+        String json = unzip(gzip);
+        assertTrue(json.startsWith("[\"item-0\",\"item-1\""));
+
+        // 不接受压缩时送出未压缩的内容
+        he = call(handler, "/cache/list?n=50");
+        assertEquals(200, he.getResponseCode());
+        assertNull(he.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals(json, new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        // 过期后重新调用
+        Thread.sleep(5L);
+        call(handler, "/cache/list?n=50");
+        assertTrue(calls.get() >= 2);
+    }
+
+    @Test
+    public void testDeflateVariant() throws Exception {
+        RestfulHttpHandler handler = handler(CachedService.class).setCompressMinSize(64);
+        calls.set(0);
+        TestExchange he = call(handler, "/cache/range/50");
+        assertEquals(200, he.getResponseCode());
+        String json = new String(he.getResponseBytes(), StandardCharsets.UTF_8);
+
+        // 命中缓存时, 未压缩的响应也有"Vary"
+        he = call(handler, "/cache/range/50");
+        assertNull(he.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals("Accept-Encoding", he.getResponseHeaders().getFirst("Vary"));
+        assertEquals(json, new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        // 只接受deflate时送出deflate的内容
+        he = call(handler, new TestExchange("GET", "/cache/range/50").header("Accept-Encoding", "deflate"));
+        assertEquals(200, he.getResponseCode());
+        assertEquals("deflate", he.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals("Accept-Encoding", he.getResponseHeaders().getFirst("Vary"));
+        assertEquals(json, read(new InflaterInputStream(new ByteArrayInputStream(he.getResponseBytes()))));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testHitWithoutPermit() throws Exception {
+        RestfulHttpHandler handler = handler(CachedService.class).setMaxConcurrency(1);
+        calls.set(0);
+        entered = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        assertEquals("1", new String(call(handler, "/cache/slow/1").getResponseBytes(), StandardCharsets.UTF_8));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<TestExchange> blocked = executor.submit(() -> call(handler, "/cache/slow/0"));
+            assertTrue(entered.await(5L, TimeUnit.SECONDS));
+            // 许可用完时, 缓存命中的请求仍然送出
+            TestExchange he = call(handler, "/cache/slow/1");
+            assertEquals(200, he.getResponseCode());
+            assertEquals("1", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+            he = call(handler, "/cache/slow/2");
+            assertEquals(503, he.getResponseCode());
+            release.countDown();
+            assertEquals(200, blocked.get(5L, TimeUnit.SECONDS).getResponseCode());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testNotCacheable() throws Exception {
+        RestfulHttpHandler handler = handler(CachedService.class).setCompressMinSize(64);
+        calls.set(0);
+        call(handler, "/cache/response");
+        call(handler, "/cache/response");
+        assertEquals(2, calls.get());
+
+        assertFalse(ResponseCache.isCacheable(null));
+        assertFalse(ResponseCache.isCacheable(Arrays.asList(1).iterator()));
+        assertFalse(ResponseCache.isCacheable(new byte[0]));
+        assertTrue(ResponseCache.isCacheable(Collections.singletonMap("a", 1)));
+    }
+
+    @Test
+    public void testKeyAndEviction() throws Exception {
+        ResponseCache cache = new ResponseCache(0L, 2);
+        assertNull(cache.key(new Object[] {"a", new ByteArrayOutputStream()}));
+        ResponseCache.Key key = cache.key(new Object[] {"a", 1, Arrays.asList("x", "y"), new int[] {1, 2}});
+        assertEquals(key, cache.key(new Object[] {"a", 1, Arrays.asList("x", "y"), new int[] {1, 2}}));
+        assertFalse(key.equals(cache.key(new Object[] {"a", 1, Arrays.asList("x", "y"), new int[] {1, 3}})));
+
+        assertNull(cache.get(key));
+        ResponseCache.Entry entry = cache.put(key, "value", -1, 1);
+        assertEquals("\"value\"", new String(entry.body, StandardCharsets.UTF_8));
+        assertNull(entry.gzip);
+        assertSame(entry, cache.get(key));
+        cache.put(cache.key(new Object[] {"b"}), 2, -1, 1);
+        cache.put(cache.key(new Object[] {"c"}), 3, -1, 1);
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.evictions());
+        assertEquals(0.5d, cache.hitRate(), 0.001d);
+    }
+
+    private static String unzip(byte[] data) throws Exception {
+        return read(new GZIPInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private static String read(InputStream input) throws Exception {
+        try (InputStream in = input) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                out.write(buffer, 0, len);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
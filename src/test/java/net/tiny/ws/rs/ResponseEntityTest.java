@@ -0,0 +1,220 @@
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.call;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+public class ResponseEntityTest {
+
+    public static class Point {
+        public int x;
+        public int y;
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    @Path("/res")
+    public static class ResponseService {
+        @GET
+        @Path("created")
+        public Response created() {
+            return Response.status(201)
+                    .entity(Collections.singletonMap("id", 1))
+                    .header("X-Trace", 12)
+                    .tag("v1")
+                    .cookie(new NewCookie("name1", "The cookie value$1"))
+                    .build();
+        }
+
+        @GET
+        @Path("empty")
+        public Response empty() {
+            return Response.noContent().header("X-Empty", "true").build();
+        }
+
+        @GET
+        @Path("text")
+        public Response text() {
+            return Response.ok("hello", MediaType.TEXT_PLAIN_TYPE).build();
+        }
+
+        @GET
+        @Path("bytes")
+        public byte[] bytes() {
+            return new byte[] {1, 2, 3};
+        }
+
+        @GET
+        @Path("buffer")
+        @Produces("image/png")
+        public Response buffer() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(20000);
+            for (int i = 0; i < buffer.capacity(); i++) {
+                buffer.put((byte) i);
+            }
+            buffer.flip();
+            return Response.ok(buffer).build();
+        }
+
+        @GET
+        @Path("stream")
+        public Response stream() {
+            return Response.ok(new ByteArrayInputStream("raw".getBytes(StandardCharsets.UTF_8)))
+                    .type("text/plain; charset=utf-8").build();
+        }
+
+        @GET
+        @Path("point")
+        @Produces("text/x-point")
+        public Point point() {
+            return new Point(3, 4);
+        }
+    }
+
+    /** 自定义的实体写出器 */
+    static class PointWriter implements MessageBodyWriter<Point> {
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return Point.class.isAssignableFrom(type) && "x-point".equals(mediaType.getSubtype());
+        }
+
+        @Override
+        public long getSize(Point t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return -1L;
+        }
+
+        @Override
+        public void writeTo(Point t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                MultivaluedMap<String, Object> httpHeaders, OutputStream out) throws IOException {
+            httpHeaders.add("X-Writer", "point");
+            out.write((t.x + "," + t.y).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static RestfulHttpHandler handler() {
+        List<MessageBodyWriter<?>> writers = Arrays.<MessageBodyWriter<?>>asList(new PointWriter());
+        return TestExchange.handler(ResponseService.class).setCompression(false).setWriters(writers);
+    }
+
+    @Test
+    public void testResponseStatusAndHeaders() throws Exception {
+        TestExchange he = call(handler(), "/res/created");
+        assertEquals(201, he.getResponseCode());
+        assertEquals("{\"id\":1}", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        assertEquals("12", he.getResponseHeaders().getFirst("X-Trace"));
+        assertEquals("\"v1\"", he.getResponseHeaders().getFirst("ETag"));
+        assertTrue(he.getResponseHeaders().getFirst("Set-Cookie").startsWith("name1=\"The cookie value$1\""));
+        assertTrue(he.getResponseHeaders().getFirst("Content-Type").startsWith("application/json"));
+    }
+
+    @Test
+    public void testNoContent() throws Exception {
+        TestExchange he = call(handler(), "/res/empty");
+        assertEquals(204, he.getResponseCode());
+        assertEquals(-1L, he.getResponseLength());
+        assertEquals("true", he.getResponseHeaders().getFirst("X-Empty"));
+    }
+
+    @Test
+    public void testTextEntity() throws Exception {
+        TestExchange he = call(handler(), "/res/text");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("text/plain", he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals("hello", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPassThrough() throws Exception {
+        RestfulHttpHandler handler = handler();
+        TestExchange he = call(handler, "/res/bytes");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("application/octet-stream", he.getResponseHeaders().getFirst("Content-Type"));
+        assertArrayEquals(new byte[] {1, 2, 3}, he.getResponseBytes());
+
+        // 超过缓冲区的ByteBuffer按固定长度送出
+        he = call(handler, "/res/buffer");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("image/png", he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals(20000L, he.getResponseLength());
+        byte[] body = he.getResponseBytes();
+        assertEquals(20000, body.length);
+        assertEquals((byte) 19999, body[19999]);
+
+        he = call(handler, "/res/stream");
+        assertEquals("text/plain; charset=utf-8", he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals("raw", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMessageBodyWriter() throws Exception {
+        TestExchange he = call(handler(), "/res/point");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("text/x-point", he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals("3,4", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        assertEquals("point", he.getResponseHeaders().getFirst("X-Writer"));
+    }
+
+    @Test
+    public void testRuntimeDelegate() throws Exception {
+        RestRuntimeDelegate.install();
+        Response response = Response.ok("a").tag(new EntityTag("t", true)).build();
+        assertEquals(200, response.getStatus());
+        assertEquals("W/\"t\"", response.getHeaderString("ETag"));
+        assertEquals(new EntityTag("t", true), response.getEntityTag());
+        assertEquals(204, Response.noContent().build().getStatus());
+        assertEquals("name=value;Version=1", RestRuntimeDelegate.toHeaderString(new NewCookie("name", "value")));
+    }
+
+    @Test
+    public void testLinks() throws Exception {
+        RestRuntimeDelegate.install();
+        Response response = Response.ok()
+                .link("http://localhost/items?page=2", "next")
+                .link(URI.create("/items?page=1"), "prev first")
+                .build();
+        assertEquals(2, response.getLinks().size());
+        assertTrue(response.hasLink("next"));
+        assertTrue(response.hasLink("first"));
+        assertFalse(response.hasLink("last"));
+        Link next = response.getLink("next");
+        assertEquals(URI.create("http://localhost/items?page=2"), next.getUri());
+        assertEquals("<http://localhost/items?page=2>; rel=\"next\"", next.toString());
+        assertEquals(Arrays.asList("prev", "first"), response.getLink("prev").getRels());
+        assertNull(response.getLink("last"));
+
+        // 不支持的生成器抛出明确的异常
+        try {
+            UriBuilder.fromPath("/items");
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            assertTrue(ex.getMessage().contains("UriBuilder"));
+        }
+    }
+}
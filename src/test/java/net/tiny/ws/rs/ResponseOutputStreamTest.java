@@ -0,0 +1,145 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class ResponseOutputStreamTest {
+
+    @Test
+    public void testFixedLength() throws Exception {
+        TestExchange he = new TestExchange("GET", "/api/v1/test");
+        ResponseOutputStream out = new ResponseOutputStream(he, 200, 16);
+        out.write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        // 关闭前不送出响应头
+        assertFalse(he.isSent());
+        out.close();
+        assertEquals(200, he.getResponseCode());
+        assertEquals(8L, he.getResponseLength());
+        assertEquals("{\"id\":1}", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testChunked() throws Exception {
+        TestExchange he = new TestExchange("GET", "/api/v1/test");
+        ResponseOutputStream out = new ResponseOutputStream(he, 200, 16);
+        out.write("0123456789".getBytes());
+        assertFalse(out.isCommitted());
+        out.write("0123456789".getBytes());
+        assertTrue(out.isCommitted());
+        assertEquals(0L, he.getResponseLength());
+        byte[] large = new byte[100];
+        Arrays.fill(large, (byte) 'x');
+        out.write(large);
+        out.write('!');
+        out.close();
+        assertEquals(121, he.getResponseBytes().length);
+        assertEquals('!', he.getResponseBytes()[120]);
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        TestExchange he = new TestExchange("GET", "/api/v1/test");
+        ResponseOutputStream out = new ResponseOutputStream(he, 200);
+        out.write('x');
+        out.release();
+        out.close();
+        assertFalse(he.isSent());
+
+        he = new TestExchange("GET", "/api/v1/test");
+        out = new ResponseOutputStream(he, 204);
+        out.close();
+        assertEquals(-1L, he.getResponseLength());
+    }
+
+    @Test
+    public void testReleaseCompressed() throws Exception {
+        TestExchange he = new TestExchange("GET", "/api/v1/test");
+        ResponseOutputStream out = new ResponseOutputStream(he, 200, 16).compress("gzip", 1, 1);
+        byte[] large = new byte[100];
+        Arrays.fill(large, (byte) 'x');
+        out.write(large);
+        assertTrue(out.isCommitted());
+        // 中断的chunked压缩响应归还Deflater, 之后的写入抛出异常
+        out.release();
+        out.flush();
+        out.close();
+        try {
+            out.write('x');
+            fail();
+        } catch (IOException ex) {
+            assertEquals("Stream closed", ex.getMessage());
+        }
+        try {
+            out.write(large, 0, 10);
+            fail();
+        } catch (IOException ex) {
+            assertEquals("Stream closed", ex.getMessage());
+        }
+        byte[] data = Compression.compress(large, 0, large.length, Compression.GZIP, 1);
+        assertTrue(data.length > 0);
+    }
+
+    @Test
+    public void testJsonWriter() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "a\"b\\c\né中😀");
+        map.put("count", 3);
+        map.put("ok", true);
+        map.put("list", Arrays.asList(1L, null, "x"));
+        map.put("array", new int[] {1, 2});
+        map.put("empty", new ArrayList<>());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter.write(map, out);
+        assertEquals("{\"name\":\"a\\\"b\\\\c\\né中😀\",\"count\":3,\"ok\":true,"
+                + "\"list\":[1,null,\"x\"],\"array\":[1,2],\"empty\":[]}",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        // 大量的要素按chunked送出
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            items.add("item" + i);
+        }
+        TestExchange he = new TestExchange("GET", "/api/v1/items");
+        ResponseOutputStream body = new ResponseOutputStream(he, 200);
+        JsonWriter.write(items, body);
+        body.close();
+        assertEquals(0L, he.getResponseLength());
+        String json = new String(he.getResponseBytes(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[\"item0\",\"item1\","));
+        assertTrue(json.endsWith(",\"item4999\"]"));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        TestExchange he = new TestExchange("GET", "/api/v1/items");
+        ResponseOutputStream out = new ResponseOutputStream(he, 200).streaming();
+        // 写出第一个要素后送出响应头
+        JsonWriter.writeStream(Stream.of(1, 2, 3).iterator(), out, false);
+        assertTrue(he.isSent());
+        assertEquals(0L, he.getResponseLength());
+        out.close();
+        assertEquals("[1,2,3]", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        JsonWriter.writeStream(Arrays.asList("a", "b").iterator(), lines, true);
+        assertEquals("\"a\"\n\"b\"\n", new String(lines.toByteArray(), StandardCharsets.UTF_8));
+
+        lines.reset();
+        JsonWriter.write(Stream.of("x").iterator(), lines);
+        JsonWriter.write(IntStream.range(0, 3).boxed(), lines);
+        assertEquals("[\"x\"][0,1,2]", new String(lines.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,117 @@
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.call;
+import static net.tiny.ws.rs.TestExchange.handler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.Suspended;
+
+public class RestAsyncResponseTest {
+
+    @Path("/async")
+    public static class AsyncService {
+        @GET
+        @Path("future/{value}")
+        public CompletableFuture<Integer> future(@PathParam("value") int value) {
+            return CompletableFuture.supplyAsync(() -> value * 2);
+        }
+
+        @GET
+        @Path("never")
+        public CompletionStage<String> never() {
+            return new CompletableFuture<>();
+        }
+
+        @GET
+        @Path("error")
+        public CompletionStage<String> error() {
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("error"));
+            return future;
+        }
+
+        @GET
+        @Path("suspended/{name}")
+        public void suspended(@PathParam("name") String name, @Suspended AsyncResponse response) {
+            new Thread(() -> response.resume("hello " + name)).start();
+        }
+
+        @GET
+        @Path("cancel")
+        public void cancel(@Suspended AsyncResponse response) {
+            response.cancel(10);
+        }
+
+        @GET
+        @Path("extend")
+        public void extend(@Suspended AsyncResponse response) {
+            response.setTimeout(10L, TimeUnit.MILLISECONDS);
+            response.setTimeoutHandler(r -> r.resume("late"));
+        }
+    }
+
+    @Test
+    public void testCompletionStage() throws Exception {
+        RestfulHttpHandler handler = handler(AsyncService.class).setAsyncTimeout(100L);
+        TestExchange he = call(handler, "/async/future/21").await();
+        assertEquals(200, he.getResponseCode());
+        assertEquals("42", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        he = call(handler, "/async/never").await();
+        assertEquals(503, he.getResponseCode());
+
+        he = call(handler, "/async/error").await();
+        assertEquals(500, he.getResponseCode());
+    }
+
+    @Test
+    public void testSuspended() throws Exception {
+        RestfulHttpHandler handler = handler(AsyncService.class);
+        TestExchange he = call(handler, "/async/suspended/tiny").await();
+        assertEquals(200, he.getResponseCode());
+        assertEquals("\"hello tiny\"", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        he = call(handler, "/async/cancel").await();
+        assertEquals(503, he.getResponseCode());
+        assertEquals("10", he.getResponseHeaders().getFirst("Retry-After"));
+
+        // TimeoutHandler中写入结果
+        he = call(handler, "/async/extend").await();
+        assertEquals(200, he.getResponseCode());
+        assertEquals("\"late\"", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testResponse() throws Exception {
+        RestAsyncResponse response = new RestAsyncResponse();
+        AtomicReference<Throwable> completed = new AtomicReference<>();
+        response.register((CompletionCallback) completed::set);
+        AtomicReference<Object> result = new AtomicReference<>();
+        response.then((value, error) -> result.set(value));
+        response.start(0L);
+        assertTrue(response.isSuspended());
+        assertTrue(response.resume("done"));
+        assertFalse(response.resume("again"));
+        assertFalse(response.cancel());
+        assertFalse(response.setTimeout(1L, TimeUnit.SECONDS));
+        assertTrue(response.isDone());
+        assertFalse(response.isCancelled());
+        assertEquals("done", result.get());
+        assertNull(completed.get());
+
+        assertNull(RestAsyncResponse.of("sync", new Object[] {"a"}));
+        assertSame(response, RestAsyncResponse.of(null, new Object[] {"a", response}));
+    }
+}
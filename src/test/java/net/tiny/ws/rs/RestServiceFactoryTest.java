@@ -1,60 +1,118 @@
-package net.tiny.ws.rs;
-
-import static org.junit.jupiter.api.Assertions.*;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-
-import java.util.HashMap;
-import java.util.Map;
-
-import javax.ws.rs.core.Application;
-
-public class RestServiceFactoryTest {
-
-    @BeforeEach
-    public void setUp() throws Exception {
-        System.setProperty("javax.ws.rs.scan.packages.include", "net.tiny.*");
-        System.setProperty("javax.ws.rs.scan.packages.exclude", "java.*, com.sun.*");
-        System.setProperty("javax.ws.rs.logging.level", "info");
-    }
-
-    @AfterEach
-    public void tearDown() throws Exception {
-        System.getProperties().remove("javax.ws.rs.scan.packages.include");
-        System.getProperties().remove("javax.ws.rs.scan.packages.exclude");
-        System.getProperties().remove("javax.ws.rs.logging.level");
-    }
-
-    @Test
-    public void testFecthRestService() throws Exception {
-        final Application application = new RestApplication();
-        RestServiceFactory factory = new RestServiceFactory();
-        factory.setApplication(application);
-        final Map<String, Object> args = new HashMap<>();
-        RestServiceHandler handler = factory.getRestServiceHandler("/v1/api/test/123", "GET", args);
-        assertNotNull(handler);
-        assertTrue(handler instanceof MethodPattern);
-
-        Object target = handler.getTarget();
-        assertNotNull(target);
-        assertTrue(target instanceof TestService);
-
-        assertEquals(1, args.size());
-        assertEquals("123", args.get("id"));
-
-        Object ret = handler.invoke(new Object[] {"123"});
-        assertNotNull(ret);
-        assertEquals("Id is 123", ret);
-    }
-
-    @Test
-    public void testNotFoundRestService() throws Exception {
-        final Application application = new RestApplication();
-        RestServiceFactory factory = new RestServiceFactory();
-        factory.setApplication(application);
-        final Map<String, Object> args = new HashMap<>();
-        RestServiceHandler handler = factory.getRestServiceHandler("/v1/api/unkonw/123", "GET", args);
-        assertNull(handler);
-    }
-}
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.Application;
+
+public class RestServiceFactoryTest {
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        System.setProperty("javax.ws.rs.scan.packages.include", "net.tiny.*");
+        System.setProperty("javax.ws.rs.scan.packages.exclude", "java.*, com.sun.*");
+        System.setProperty("javax.ws.rs.logging.level", "info");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.getProperties().remove("javax.ws.rs.scan.packages.include");
+        System.getProperties().remove("javax.ws.rs.scan.packages.exclude");
+        System.getProperties().remove("javax.ws.rs.logging.level");
+    }
+
+    @Test
+    public void testFecthRestService() throws Exception {
+        final Application application = new RestApplication();
+        RestServiceFactory factory = new RestServiceFactory();
+        factory.setApplication(application);
+        final Map<String, Object> args = new HashMap<>();
+        RestServiceHandler handler = factory.getRestServiceHandler("/v1/api/test/123", "GET", args);
+        assertNotNull(handler);
+        assertTrue(handler instanceof MethodPattern);
+
+        Object target = handler.getTarget();
+        assertNotNull(target);
+        assertTrue(target instanceof TestService);
+
+        assertEquals(1, args.size());
+        assertEquals("123", args.get("id"));
+
+        Object ret = handler.invoke(new Object[] {"123"});
+        assertNotNull(ret);
+        assertEquals("Id is 123", ret);
+    }
+
+    @Test
+    public void testNotFoundRestService() throws Exception {
+        final Application application = new RestApplication();
+        RestServiceFactory factory = new RestServiceFactory();
+        factory.setApplication(application);
+        final Map<String, Object> args = new HashMap<>();
+        RestServiceHandler handler = factory.getRestServiceHandler("/v1/api/unkonw/123", "GET", args);
+        assertNull(handler);
+    }
+
+    @Test
+    public void testReloadWithoutUnavailable() throws Exception {
+        final RestServiceFactory factory = new RestServiceFactory();
+        factory.setApplication(new RestApplication());
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger missed = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            final Map<String, Object> args = new HashMap<>();
+            while (running.get()) {
+                try {
+                    args.clear();
+                    if (null == factory.getRestServiceHandler("/v1/api/test/123", "GET", args)) {
+                        missed.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 10; i++) {
+            factory.setApplication(new RestApplication());
+        }
+        running.set(false);
+        reader.join();
+        assertEquals(0, missed.get());
+        assertEquals(0, errors.get());
+        assertTrue(factory.info(false).endsWith("[3]"));
+    }
+
+    @Test
+    public void testResolveCache() throws Exception {
+        RestServiceFactory factory = new RestServiceFactory();
+        factory.setApplication(new RestApplication());
+        assertEquals(RestServiceFactory.DEFAULT_CACHE_SIZE, factory.getCacheSize());
+
+        Map<String, Object> args = new HashMap<>();
+        RestServiceHandler first = factory.getRestServiceHandler("/v1/api/test/123", "GET", args);
+        args.clear();
+        RestServiceHandler second = factory.getRestServiceHandler("/v1/api/test/123", "GET", args);
+        assertSame(first, second);
+        assertEquals("123", args.get("id"));
+        assertTrue(factory.info(true).contains("hits:1 misses:1"));
+
+        // 重新载入时缓存也被替换
+        factory.setApplication(new RestApplication());
+        assertTrue(factory.info(true).contains("hits:0 misses:0"));
+
+        factory.setCacheSize(0);
+        assertFalse(factory.info(true).contains("hits:"));
+        args.clear();
+        assertNotNull(factory.getRestServiceHandler("/v1/api/test/123", "GET", args));
+        assertEquals("123", args.get("id"));
+    }
+}
@@ -0,0 +1,125 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class RouteTreeTest {
+
+    private RouteTree build(Object... services) {
+        RouteTree tree = new RouteTree();
+        for (Object service : services) {
+            RestServiceWrapper wrapper = new RestServiceWrapper(service);
+            for (MethodPattern methodPattern : wrapper.getMethodPatterns()) {
+                tree.add(methodPattern);
+            }
+        }
+        return tree;
+    }
+
+    @Test
+    public void testFindLiteralAndVariable() throws Exception {
+        RouteTree tree = build(new RestServiceWrapperTest.Example01(), new SampleService(), new TestService());
+        assertEquals(13, tree.size());
+
+        Map<String, Object> args = new HashMap<>();
+        MethodPattern methodPattern = tree.find("/rest/add/111/222", "GET", args);
+        assertNotNull(methodPattern);
+        assertEquals("add", methodPattern.getMethod().getName());
+        assertEquals("111", args.get("a"));
+        assertEquals("222", args.get("b"));
+
+        args.clear();
+        methodPattern = tree.find("/v1/api/test/123", "GET", args);
+        assertNotNull(methodPattern);
+        assertEquals("getId", methodPattern.getMethod().getName());
+        assertEquals("123", args.get("id"));
+
+        assertNull(tree.find("/rest/add/111", "GET", null));
+        assertNull(tree.find("/rest/add/111/222/333", "GET", null));
+        assertNull(tree.find("/v1/api/unkonw/123", "GET", null));
+        assertNull(tree.find("/rest/add/111/222", "POST", null));
+        assertNull(tree.find("", "GET", null));
+    }
+
+    @Test
+    public void testFindRegexVariable() throws Exception {
+        RouteTree tree = build(new RestServiceWrapperTest.Example01());
+
+        Map<String, Object> args = new HashMap<>();
+        MethodPattern methodPattern = tree.find("/rest/login/123", "GET", args);
+        assertNotNull(methodPattern);
+        assertEquals("customer", methodPattern.getMethod().getName());
+        assertEquals("123", args.get("customerId"));
+
+        args.clear();
+        methodPattern = tree.find("/rest/login/abc", "GET", args);
+        assertNotNull(methodPattern);
+        assertEquals("login", methodPattern.getMethod().getName());
+        assertEquals("abc", args.get("login"));
+
+        assertNull(tree.find("/rest/login/ABC", "GET", null));
+    }
+
+    @Test
+    public void testFindWithQuery() throws Exception {
+        RouteTree tree = build(new SampleService());
+
+        Map<String, Object> args = new HashMap<>();
+        MethodPattern methodPattern = tree.find("/calc/query?from=10&to=999&orderBy=%5BItem1%2C+Item2%2C+Item3%5D", "GET", args);
+        assertNotNull(methodPattern);
+        assertEquals("query", methodPattern.getMethod().getName());
+        assertEquals(3, args.size());
+        assertEquals("10", args.get("from"));
+        assertEquals("[Item1, Item2, Item3]", args.get("orderBy"));
+
+        assertNull(tree.find("/calc/query?unknown=1", "GET", null));
+        // 该方法已登录但Query不匹配时为404, 不是405
+        assertNull(tree.allowedMethods("/calc/query?unknown=1", "GET"));
+        assertEquals("GET", tree.allowedMethods("/calc/query?unknown=1", "DELETE"));
+    }
+
+    @Test
+    public void testPartitionByMethod() throws Exception {
+        RouteTree tree = build(new RestServiceWrapperTest.Example01(), new SampleService());
+
+        assertNull(tree.find("/rest/add/111/222", "POST", null));
+        assertEquals("GET", tree.allowedMethods("/rest/add/111/222", "POST"));
+        assertEquals("POST", tree.allowedMethods("/calc/divide", "GET"));
+        assertNull(tree.allowedMethods("/rest/unknown", "GET"));
+        assertNull(tree.find("/calc/add/1/2", "PROPFIND", null));
+
+        assertEquals(0, RouteTree.indexOf("GET"));
+        assertEquals(RouteTree.OTHER, RouteTree.indexOf("PROPFIND"));
+    }
+
+    @Test
+    public void testMatchIndexedSlots() throws Exception {
+        RouteTree tree = build(new SampleService());
+
+        RouteMatch match = tree.match("/calc/add/1/2.5", "GET");
+        assertNotNull(match);
+        // double参数直接由URI区域解析
+        assertArrayEquals(new Object[] {1.0d, 2.5d}, match.getArguments());
+        Object[] params = ParameterBinder.bindSlots(match.getMethodPattern().getBinders(), null, match.getArguments());
+        assertSame(match.getArguments(), params);
+        assertArrayEquals(new Object[] {1.0d, 2.5d}, params);
+
+        match = tree.match("/calc/query?to=20", "GET");
+        assertNotNull(match);
+        assertArrayEquals(new Object[] {null, 20, null}, match.getArguments());
+        params = ParameterBinder.bindSlots(match.getMethodPattern().getBinders(), null, match.getArguments());
+        assertEquals(100, params[0]);
+        assertEquals(20, params[1]);
+
+        // 需要解码时按文字列变换
+        match = tree.match("/calc/add/%31/2.5", "GET");
+        assertArrayEquals(new Object[] {"1", 2.5d}, match.getArguments());
+        params = ParameterBinder.bindSlots(match.getMethodPattern().getBinders(), null, match.getArguments());
+        assertArrayEquals(new Object[] {1.0d, 2.5d}, params);
+
+        assertNull(tree.match("/calc/add/1", "GET"));
+    }
+}
@@ -0,0 +1,124 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import net.tiny.ws.rs.Constants.Mode;
+
+public class ServiceProviderTest {
+
+    static final AtomicInteger CREATED = new AtomicInteger();
+
+    @Path("heavy")
+    @ServiceMode(value = Mode.pool, size = 2)
+    public static class HeavyService {
+        private int count = 0;
+
+        public HeavyService() {
+            CREATED.incrementAndGet();
+        }
+
+        @GET
+        @Path("count/{n}")
+        public int count(@PathParam("n") int n) {
+            // 同一实体不会被同时使用
+            int start = ++count;
+            for (int i = 0; i < n; i++) {
+                Thread.yield();
+            }
+            return start == count ? 0 : 1;
+        }
+    }
+
+    @Test
+    public void testPoolUnderLoad() throws Exception {
+        CREATED.set(0);
+        RestServiceWrapper wrapper = new RestServiceWrapper(new HeavyService());
+        assertEquals(Mode.pool, wrapper.getMode());
+        final MethodPattern pattern = wrapper.getMethodPatterns().get(0);
+        assertEquals(Mode.pool, pattern.getMode());
+
+        final AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> conflicts.addAndGet((Integer) pattern.invoke(new Object[] {100})));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(0, conflicts.get());
+        // setup时的1个实体加上池里的最多2个实体
+        assertTrue(CREATED.get() <= 3, "created " + CREATED.get());
+    }
+
+    @Path("async")
+    public static class AsyncService {
+        static CompletableFuture<String> pending;
+
+        @GET
+        @Path("later")
+        public CompletionStage<String> later() {
+            pending = new CompletableFuture<>();
+            return pending;
+        }
+    }
+
+    @Test
+    public void testPoolReleaseOnComplete() throws Exception {
+        ServiceProvider.Pool pool = (ServiceProvider.Pool) ServiceProvider.create(AsyncService.class, null, "pool:1");
+        MethodPattern pattern = new MethodPattern("/async", "later", "GET", "application/json", AsyncService.class,
+                AsyncService.class.getMethod("later"), pool);
+        pattern.invoke(new Object[0]);
+        // 异步结果完成前不归还
+        assertEquals(0, pool.idle());
+        AsyncService.pending.complete("done");
+        assertEquals(1, pool.idle());
+    }
+
+    @Test
+    public void testModes() throws Exception {
+        ServiceProvider provider = ServiceProvider.create(TestService.class, null, "instance");
+        assertEquals(Mode.instance, provider.getMode());
+        assertNotSame(provider.acquire(), provider.acquire());
+
+        TestService target = new TestService();
+        provider = ServiceProvider.create(TestService.class, target, "singleton");
+        assertSame(target, provider.acquire());
+
+        provider = ServiceProvider.create(TestService.class, null, "thread");
+        assertSame(provider.acquire(), provider.acquire());
+
+        provider = ServiceProvider.create(TestService.class, null, "pool:1");
+        assertEquals("pool:1", provider.toString());
+        Object first = provider.acquire();
+        provider.release(first);
+        assertSame(first, provider.acquire());
+        assertThrows(IllegalArgumentException.class, () -> ServiceProvider.create(TestService.class, null, "unknown"));
+    }
+
+    @Test
+    public void testApplicationModes() throws Exception {
+        RestApplication application = new RestApplication()
+                .setMode("singleton")
+                .setModes("net.tiny.ws.rs.SampleService=pool:4, net.tiny.ws.rs.TestService = thread");
+        assertEquals("pool:4", application.getServiceMode(SampleService.class));
+        assertEquals("thread", application.getServiceMode(TestService.class));
+        assertEquals("singleton", application.getServiceMode(TestContext.class));
+
+        RestServiceWrapper wrapper = new RestServiceWrapper(new SampleService(), application.getServiceMode(SampleService.class));
+        assertEquals(Mode.pool, wrapper.getMode());
+        // 注解优先
+        wrapper = new RestServiceWrapper(new HeavyService(), "thread");
+        assertEquals(Mode.pool, wrapper.getMode());
+    }
+}
@@ -0,0 +1,103 @@
+package net.tiny.ws.rs;
+
+import static net.tiny.ws.rs.TestExchange.call;
+import static net.tiny.ws.rs.TestExchange.handler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.StreamingOutput;
+
+public class StreamingResponseTest {
+
+    static final AtomicBoolean closed = new AtomicBoolean();
+
+    @Path("/stream")
+    public static class StreamService {
+        @GET
+        @Path("numbers")
+        public Stream<Integer> numbers() {
+            return IntStream.range(0, 5000).boxed().onClose(() -> closed.set(true));
+        }
+
+        @GET
+        @Path("names")
+        public Iterator<String> names() {
+            return Arrays.asList("a", "b", "c").iterator();
+        }
+
+        @GET
+        @Path("lines")
+        @Produces("application/x-ndjson")
+        public Stream<String> lines() {
+            return Stream.of("x", "y");
+        }
+
+        @GET
+        @Path("csv")
+        @Produces("text/csv")
+        public StreamingOutput csv() {
+            return out -> {
+                out.write("a,b\n".getBytes());
+                out.flush();
+                out.write("1,2\n".getBytes());
+            };
+        }
+    }
+
+    @Test
+    public void testJsonArray() throws Exception {
+        RestfulHttpHandler handler = handler(StreamService.class).setCompression(false);
+        closed.set(false);
+        TestExchange he = call(handler, "/stream/numbers");
+        assertEquals(200, he.getResponseCode());
+        // 按chunked送出
+        assertEquals(0L, he.getResponseLength());
+        String json = new String(he.getResponseBytes(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[0,1,2,"));
+        assertTrue(json.endsWith(",4998,4999]"));
+        assertTrue(closed.get());
+
+        he = call(handler, "/stream/names");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("[\"a\",\"b\",\"c\"]", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        assertTrue(he.getResponseHeaders().getFirst("Content-Type").contains("json"));
+    }
+
+    @Test
+    public void testNdjson() throws Exception {
+        RestfulHttpHandler handler = handler(StreamService.class).setCompression(false);
+        TestExchange he = call(handler, new TestExchange("GET", "/stream/names")
+                .header("Accept", "application/x-ndjson"));
+        assertEquals(RestfulHttpHandler.NDJSON, he.getResponseHeaders().getFirst("Content-Type"));
+        assertEquals("\"a\"\n\"b\"\n\"c\"\n", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+
+        // @Produces为NDJSON
+        he = call(handler, "/stream/lines");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("\"x\"\n\"y\"\n", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+        // 要求JSON时按数组写出
+        he = call(handler, new TestExchange("GET", "/stream/lines").header("Accept", "application/json"));
+        assertEquals(200, he.getResponseCode());
+        assertEquals("[\"x\",\"y\"]", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStreamingOutput() throws Exception {
+        TestExchange he = call(handler(StreamService.class).setCompression(false), "/stream/csv");
+        assertEquals(200, he.getResponseCode());
+        assertEquals("text/csv", he.getResponseHeaders().getFirst("Content-Type"));
+        // flush()时送出响应头
+        assertEquals(0L, he.getResponseLength());
+        assertEquals("a,b\n1,2\n", new String(he.getResponseBytes(), StandardCharsets.UTF_8));
+    }
+}
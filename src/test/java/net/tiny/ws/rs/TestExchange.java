@@ -0,0 +1,204 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.core.Application;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+/**
+ * 不经过网络的HttpExchange, 记录送出的响应头和响应体
+ */
+public class TestExchange extends HttpExchange {
+
+    private final String method;
+    private final URI uri;
+    private final Headers requestHeaders = new Headers();
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private InputStream requestBody;
+    private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+    private int responseCode = -1;
+    private long responseLength;
+    private boolean sent;
+    private boolean closed;
+
+    public TestExchange(String method, String uri) {
+        this(method, uri, new byte[0]);
+    }
+
+    public TestExchange(String method, String uri, byte[] body) {
+        this.method = method;
+        this.uri = URI.create(uri);
+        this.requestBody = new ByteArrayInputStream(body);
+    }
+
+    /**
+     * 只登录指定服务类的handler
+     */
+    public static RestfulHttpHandler handler(Class<?>... services) {
+        final Set<Class<?>> classes = new LinkedHashSet<>(Arrays.asList(services));
+        final RestServiceFactory factory = new RestServiceFactory();
+        factory.setApplication(new Application() {
+            @Override
+            public Set<Class<?>> getClasses() {
+                return classes;
+            }
+        });
+        factory.setup();
+        return new RestfulHttpHandler().setFactory(factory);
+    }
+
+    /**
+     * 处理请求
+     */
+    public static TestExchange call(RestfulHttpHandler handler, TestExchange he) throws Exception {
+        handler.handle(he);
+        return he;
+    }
+
+    public static TestExchange call(RestfulHttpHandler handler, String uri) throws Exception {
+        return call(handler, new TestExchange("GET", uri));
+    }
+
+    /**
+     * 异步处理时等待响应结束(交换关闭)
+     */
+    public TestExchange await() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (!closed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertTrue(closed, uri.toString());
+        return this;
+    }
+
+    public TestExchange header(String name, String value) {
+        requestHeaders.add(name, value);
+        return this;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) {
+        if (sent) {
+            throw new IllegalStateException("headers already sent");
+        }
+        this.sent = true;
+        this.responseCode = rCode;
+        this.responseLength = responseLength;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return new InetSocketAddress("localhost", 0);
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return new InetSocketAddress("localhost", 0);
+    }
+
+    @Override
+    public String getProtocol() {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (null != i) {
+            requestBody = i;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    /** 送出响应头时的长度, 0为chunked, -1为没有响应体 */
+    public long getResponseLength() {
+        return responseLength;
+    }
+
+    public byte[] getResponseBytes() {
+        return responseBody.toByteArray();
+    }
+
+    public boolean isSent() {
+        return sent;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
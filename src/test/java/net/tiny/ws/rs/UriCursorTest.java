@@ -0,0 +1,63 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class UriCursorTest {
+
+    private List<String> segments(UriCursor cursor) {
+        List<String> list = new ArrayList<>();
+        while (cursor.next()) {
+            list.add(cursor.uri().substring(cursor.start(), cursor.end()));
+        }
+        return list;
+    }
+
+    @Test
+    public void testSameAsSplit() {
+        String[] uris = {"", "/", "///", "a", "/a", "a/", "/a/b", "/a//b/", "rest/add/12/23", "/u/{id}/a"};
+        for (String uri : uris) {
+            UriCursor cursor = new UriCursor().reset(uri, uri.length());
+            String[] expected = uri.split("/");
+            assertEquals(expected.length, cursor.count());
+            List<String> actual = segments(cursor);
+            assertArrayEquals(expected, actual.toArray(new String[actual.size()]));
+        }
+    }
+
+    @Test
+    public void testQuery() {
+        UriCursor cursor = new UriCursor().reset("/calc/query?from=10&to=99");
+        assertEquals(3, cursor.count());
+        assertEquals(12, cursor.query());
+        assertTrue(cursor.next());
+        assertTrue(cursor.next());
+        assertTrue(cursor.matches("calc"));
+        assertTrue(cursor.next());
+        assertTrue(cursor.matches("query"));
+        assertFalse(cursor.contains('?'));
+        assertFalse(cursor.next());
+
+        cursor.reset("/calc/add");
+        assertEquals(-1, cursor.query());
+    }
+
+    @Test
+    public void testRegionMatcher() {
+        UriCursor cursor = UriCursor.get();
+        Pattern digits = Pattern.compile("\\d+");
+        String uri = "/rest/login/123";
+        assertTrue(cursor.matches(digits, uri, 12, 15));
+        assertFalse(cursor.matches(digits, uri, 6, 11));
+        Matcher matcher = digits.matcher("");
+        assertSame(matcher, cursor.region(matcher, uri, 6, 11));
+        assertEquals("login", cursor.toString());
+        assertEquals(5, cursor.length());
+        assertTrue(cursor.region(matcher, uri, 12, 15).matches());
+    }
+}
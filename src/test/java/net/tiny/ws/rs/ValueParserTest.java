@@ -0,0 +1,80 @@
+package net.tiny.ws.rs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import net.tiny.ws.rs.Constants.Mode;
+
+public class ValueParserTest {
+
+    @Test
+    public void testParseNumber() throws Exception {
+        ValueParser parser = ValueParser.of(int.class);
+        assertEquals(123, parser.parse("/a/123/b", 3, 6));
+        assertEquals(-5, parser.parse("-5", 0, 2));
+        assertEquals(Integer.MAX_VALUE, parser.parse("2147483647", 0, 10));
+        // 溢出, 不正确的形式由Converter处理
+        assertNull(parser.parse("2147483648", 0, 10));
+        assertNull(parser.parse("12a", 0, 3));
+        assertNull(parser.parse("", 0, 0));
+        assertNull(parser.parse("-", 0, 1));
+
+        parser = ValueParser.of(Long.class);
+        assertEquals(9876543210L, parser.parse("9876543210", 0, 10));
+        assertNull(parser.parse("9223372036854775807", 0, 19));
+
+        parser = ValueParser.of(short.class);
+        assertEquals((short) 12, parser.parse("12", 0, 2));
+        assertNull(parser.parse("40000", 0, 5));
+    }
+
+    @Test
+    public void testParseDouble() throws Exception {
+        ValueParser parser = ValueParser.of(double.class);
+        String[] values = {"0", "-0", "1", "2.5", "0.1", "-3.14159", "123456.789012", ".5", "5.", "0.000000000000000000001"};
+        for (String value : values) {
+            assertEquals(Double.valueOf(value), parser.parse(value, 0, value.length()), value);
+        }
+        assertNull(parser.parse("1e10", 0, 4));
+        assertNull(parser.parse("1.2345678901234567", 0, 18));
+        assertNull(parser.parse("NaN", 0, 3));
+        assertNull(parser.parse(".", 0, 1));
+        assertNull(parser.parse("1.2.3", 0, 5));
+    }
+
+    @Test
+    public void testParseOthers() throws Exception {
+        assertEquals(Boolean.TRUE, ValueParser.of(boolean.class).parse("/TRUE", 1, 5));
+        assertEquals(Boolean.FALSE, ValueParser.of(Boolean.class).parse("yes", 0, 3));
+
+        UUID uuid = UUID.randomUUID();
+        String text = "/id/" + uuid.toString();
+        assertEquals(uuid, ValueParser.of(UUID.class).parse(text, 4, text.length()));
+        assertNull(ValueParser.of(UUID.class).parse("1-2-3-4-5", 0, 9));
+
+        assertEquals(LocalDate.of(2020, 2, 29), ValueParser.of(LocalDate.class).parse("2020-02-29", 0, 10));
+        assertNull(ValueParser.of(LocalDate.class).parse("2019-02-29", 0, 10));
+        assertEquals(LocalDate.of(2021, 12, 1), ValueParser.of(LocalDate.class).parse("/d/2021-12-01", 3, 13));
+        String[] invalids = {"2020-+1-01", "+020-01-01", "2020-01--1", "2020/01/01", "2020-1-001", "２０２０-01-01"};
+        for (String invalid : invalids) {
+            assertNull(ValueParser.of(LocalDate.class).parse(invalid, 0, invalid.length()));
+        }
+
+        assertEquals(Mode.pool, ValueParser.of(Mode.class).parse("/pool/", 1, 5));
+        assertNull(ValueParser.of(Mode.class).parse("POOL", 0, 4));
+
+        assertNull(ValueParser.of(String.class));
+        assertNull(ValueParser.of(Object.class));
+    }
+
+    @Test
+    public void testConverter() throws Exception {
+        assertEquals(10, ParameterBinder.converter(int.class).apply("10"));
+        assertEquals(1.5d, ParameterBinder.converter(Double.class).apply("1.5"));
+        // 不能直接解析时由Converter变换
+        assertEquals(1.0e10d, ParameterBinder.converter(double.class).apply("1e10"));
+    }
+}